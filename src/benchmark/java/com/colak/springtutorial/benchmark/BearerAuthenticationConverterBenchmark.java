@@ -0,0 +1,58 @@
+package com.colak.springtutorial.benchmark;
+
+import com.colak.springtutorial.configuration.BearerAuthenticationConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token extraction from the Authorization header and from a Cookie header with several cookies.
+ * Run with -prof gc (the default of the jmh execution) to see the bytes allocated per request
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BearerAuthenticationConverterBenchmark {
+
+    private static final String TOKEN = "eyJraWQiOiJoczI1NiIsImFsZyI6IkhTMjU2In0"
+            + ".eyJzdWIiOiJuaWNrQGdtYWlsLmNvbSIsInVpZCI6MSwicm9sZXMiOlsiUk9MRV9VU0VSIl19"
+            + ".c2lnbmF0dXJlLXNpZ25hdHVyZS1zaWduYXR1cmUtc2ln";
+
+    @Param({"header", "cookie"})
+    public String source;
+
+    private final BearerAuthenticationConverter converter = new BearerAuthenticationConverter();
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        request = new MockHttpServletRequest("GET", "/api/auth/loginAttempts");
+        if (source.equals("header")) {
+            request.addHeader(HttpHeaders.AUTHORIZATION, BearerAuthenticationConverter.BEARER_PREFIX + TOKEN);
+        } else {
+            request.addHeader(HttpHeaders.COOKIE, "theme=dark; locale=en-GB; "
+                    + BearerAuthenticationConverter.COOKIE_NAME + "=" + TOKEN + "; consent=yes");
+        }
+    }
+
+    @Benchmark
+    public Authentication convert() {
+        return converter.convert(request);
+    }
+}
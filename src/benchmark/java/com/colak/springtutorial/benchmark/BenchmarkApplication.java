@@ -0,0 +1,35 @@
+package com.colak.springtutorial.benchmark;
+
+import com.colak.springtutorial.SpringTutorialApplication;
+import lombok.experimental.UtilityClass;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@UtilityClass
+public class BenchmarkApplication {
+
+    /**
+     * Starts the application and its management server on random ports against its in-memory H2 database. The properties are passed as
+     * command line arguments, so they override application.properties
+     */
+    public static ConfigurableApplicationContext start(Map<String, String> properties, ApplicationContextInitializer<?>... initializers) {
+        Map<String, String> arguments = new LinkedHashMap<>();
+        arguments.put("server.port", "0");
+        arguments.put("management.server.port", "0");
+        arguments.put("spring.jpa.show-sql", "false");
+        arguments.put("logging.level.root", "WARN");
+        arguments.putAll(properties);
+
+        List<String> args = new ArrayList<>();
+        arguments.forEach((name, value) -> args.add("--" + name + "=" + value));
+        return new SpringApplicationBuilder(SpringTutorialApplication.class)
+                .initializers(initializers)
+                .run(args.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,41 @@
+package com.colak.springtutorial.benchmark;
+
+import com.colak.springtutorial.helper.JwtAlgorithm;
+import com.colak.springtutorial.helper.JwtKey;
+import com.colak.springtutorial.helper.JwtKeyRing;
+import io.jsonwebtoken.Jwts;
+import lombok.experimental.UtilityClass;
+
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.List;
+
+@UtilityClass
+class BenchmarkKeys {
+
+    /**
+     * A key ring with a freshly generated key of the algorithm
+     */
+    static JwtKeyRing keyRing(JwtAlgorithm algorithm) throws GeneralSecurityException {
+        JwtKey key = switch (algorithm) {
+            case HS256 -> {
+                SecretKey secretKey = Jwts.SIG.HS256.key().build();
+                yield new JwtKey("hs256", algorithm, secretKey, secretKey);
+            }
+            case ES256 -> {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+                KeyPair keyPair = generator.generateKeyPair();
+                yield new JwtKey("es256", algorithm, keyPair.getPrivate(), keyPair.getPublic());
+            }
+            case EDDSA -> {
+                KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+                yield new JwtKey("eddsa", algorithm, keyPair.getPrivate(), keyPair.getPublic());
+            }
+        };
+        return new JwtKeyRing(null, List.of(key));
+    }
+}
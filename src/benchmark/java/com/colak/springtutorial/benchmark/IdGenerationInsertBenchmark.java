@@ -0,0 +1,164 @@
+package com.colak.springtutorial.benchmark;
+
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.ServerSocket;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login attempt rows inserted per second with IDENTITY ids and with pooled sequence ids, the choice that was made
+ * for the entities. The JDBC calls are the ones Hibernate makes for each strategy: IDENTITY needs the generated key
+ * of every row, so every insert is its own round trip, while pooled sequence ids are fetched once per
+ * ALLOCATION_SIZE rows and the inserts are sent as JDBC batches.
+ * Round trips are only visible over a network, so the tcp transport runs the same database behind a local H2 TCP
+ * server. A real database on another host has a longer round trip and shows a larger difference
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdGenerationInsertBenchmark {
+
+    private static final int ROWS = 1000;
+    // Same as the allocationSize of the entities and the INCREMENT BY of their sequences
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Param({"identity", "sequence"})
+    public String strategy;
+
+    @Param({"mem", "tcp"})
+    public String transport;
+
+    private Server server;
+    private Connection connection;
+
+    @Setup
+    public void setUp() throws Exception {
+        String database = "mem:idgeneration;DB_CLOSE_DELAY=-1";
+        String url = "jdbc:h2:" + database;
+        if (transport.equals("tcp")) {
+            server = Server.createTcpServer("-tcpPort", String.valueOf(freePort()), "-ifNotExists").start();
+            url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/" + database;
+        }
+        connection = DriverManager.getConnection(url, "sa", "");
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE identity_attempts (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "email VARCHAR(100) NOT NULL, success BOOLEAN NOT NULL, created_at TIMESTAMP NOT NULL)");
+            statement.execute("CREATE SEQUENCE sequence_attempts_seq START WITH 1 INCREMENT BY " + ALLOCATION_SIZE);
+            statement.execute("CREATE TABLE sequence_attempts (id BIGINT PRIMARY KEY, "
+                    + "email VARCHAR(100) NOT NULL, success BOOLEAN NOT NULL, created_at TIMESTAMP NOT NULL)");
+        }
+        connection.commit();
+    }
+
+    // Every iteration starts with empty tables, so the index size does not drift between iterations
+    @Setup(Level.Iteration)
+    public void truncate() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE TABLE identity_attempts");
+            statement.execute("TRUNCATE TABLE sequence_attempts");
+        }
+        connection.commit();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long insert() throws SQLException {
+        long ids = strategy.equals("identity") ? insertWithIdentity() : insertWithSequence();
+        connection.commit();
+        return ids;
+    }
+
+    private long insertWithIdentity() throws SQLException {
+        long ids = 0;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO identity_attempts (email, success, created_at) VALUES (?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < ROWS; i++) {
+                insert.setString(1, "user" + (i % 100) + "@gmail.com");
+                insert.setBoolean(2, i % 5 != 0);
+                insert.setTimestamp(3, now);
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    ids += keys.getLong(1);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private long insertWithSequence() throws SQLException {
+        long ids = 0;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement nextValue = connection.prepareStatement("SELECT NEXT VALUE FOR sequence_attempts_seq");
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO sequence_attempts (id, email, success, created_at) VALUES (?, ?, ?, ?)")) {
+            long id = 0;
+            long limit = 0;
+            for (int i = 0; i < ROWS; i++) {
+                if (id == limit) {
+                    try (ResultSet value = nextValue.executeQuery()) {
+                        value.next();
+                        id = value.getLong(1);
+                        limit = id + ALLOCATION_SIZE;
+                    }
+                }
+                insert.setLong(1, id);
+                insert.setString(2, "user" + (i % 100) + "@gmail.com");
+                insert.setBoolean(3, i % 5 != 0);
+                insert.setTimestamp(4, now);
+                insert.addBatch();
+                ids += id++;
+                if ((i + 1) % ALLOCATION_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        return ids;
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
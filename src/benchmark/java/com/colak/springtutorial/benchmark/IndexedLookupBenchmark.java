@@ -0,0 +1,87 @@
+package com.colak.springtutorial.benchmark;
+
+import com.colak.springtutorial.jpa.LoginAttempt;
+import com.colak.springtutorial.jpa.RefreshToken;
+import com.colak.springtutorial.repository.LoginAttemptRepository;
+import com.colak.springtutorial.repository.RefreshTokenRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refresh token and recent login attempt lookups against tables of growing size. With the indexes the time per
+ * lookup stays flat from 10^4 to 10^7 rows. The largest sizes need a big heap, pick them with -p rows=...
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class IndexedLookupBenchmark {
+
+    // Far above the ids the sequences hand out while the application starts
+    private static final long FIRST_ID = 1_000_000_000L;
+    private static final int EMAILS = 10_000;
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public long rows;
+
+    private ConfigurableApplicationContext context;
+    private RefreshTokenRepository refreshTokenRepository;
+    private LoginAttemptRepository loginAttemptRepository;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(Map.of());
+        refreshTokenRepository = context.getBean(RefreshTokenRepository.class);
+        loginAttemptRepository = context.getBean(LoginAttemptRepository.class);
+
+        // Generated by H2 itself, loading 10^7 rows through JDBC would take longer than the benchmark
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        long lastId = FIRST_ID + rows - 1;
+        jdbcTemplate.execute("INSERT INTO refresh_tokens (id, token, expiry_date, version) "
+                + "SELECT X, 'token-' || X, DATEADD('DAY', 1, CURRENT_TIMESTAMP), 0 "
+                + "FROM SYSTEM_RANGE(%d, %d)".formatted(FIRST_ID, lastId));
+        jdbcTemplate.execute("INSERT INTO login_attempts (id, email, success, created_at) "
+                + "SELECT X, 'user' || MOD(X, %d) || '@gmail.com', MOD(X, 5) <> 0, DATEADD('SECOND', -X, CURRENT_TIMESTAMP) "
+                .formatted(EMAILS)
+                + "FROM SYSTEM_RANGE(%d, %d)".formatted(FIRST_ID, lastId));
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<RefreshToken> findRefreshToken() {
+        long id = FIRST_ID + ThreadLocalRandom.current().nextLong(rows);
+        return refreshTokenRepository.findByToken("token-" + id);
+    }
+
+    @Benchmark
+    public List<LoginAttempt> findRecentLoginAttempts() {
+        int email = ThreadLocalRandom.current().nextInt(EMAILS);
+        return loginAttemptRepository.findByEmailOrderByCreatedAtDesc("user" + email + "@gmail.com", Limit.of(5));
+    }
+}
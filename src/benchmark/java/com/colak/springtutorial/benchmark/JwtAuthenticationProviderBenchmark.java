@@ -0,0 +1,77 @@
+package com.colak.springtutorial.benchmark;
+
+import com.colak.springtutorial.configuration.JwtAuthenticationCache;
+import com.colak.springtutorial.configuration.JwtAuthenticationProvider;
+import com.colak.springtutorial.configuration.JwtAuthenticationToken;
+import com.colak.springtutorial.configuration.JwtProperties;
+import com.colak.springtutorial.configuration.TestJwtProperties;
+import com.colak.springtutorial.helper.JwtAlgorithm;
+import com.colak.springtutorial.helper.JwtHelper;
+import com.colak.springtutorial.service.userdetails.AuthenticatedUser;
+import com.colak.springtutorial.service.userdetails.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authentication of a bearer token with and without the token cache, trusting the claims or loading the user.
+ * The user details service is a stub, so the numbers exclude the database
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationProviderBenchmark {
+
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    @Param({"false", "true"})
+    public boolean strict;
+
+    @Param({"HS256", "EDDSA"})
+    public JwtAlgorithm algorithm;
+
+    private JwtAuthenticationProvider provider;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        JwtHelper jwtHelper = new JwtHelper(BenchmarkKeys.keyRing(algorithm));
+        token = jwtHelper.generateAccessToken("nick@gmail.com", 1L, List.of("ROLE_USER"));
+
+        UserDetailsServiceImpl userDetailsService = Mockito.mock(UserDetailsServiceImpl.class);
+        Mockito.when(userDetailsService.loadUserByUsername("nick@gmail.com"))
+                .thenAnswer(invocation -> new AuthenticatedUser(1L, "nick@gmail.com", "",
+                        List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        JwtProperties jwtProperties = TestJwtProperties.of(
+                "jwt.strict=" + strict,
+                "jwt.authentication-cache.enabled=" + cacheEnabled);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtAuthenticationCache authenticationCache = new JwtAuthenticationCache(jwtProperties, meterRegistry);
+        provider = new JwtAuthenticationProvider(jwtHelper, userDetailsService, authenticationCache, jwtProperties, meterRegistry);
+    }
+
+    @Benchmark
+    public Authentication authenticate() {
+        return provider.authenticate(new JwtAuthenticationToken(token));
+    }
+}
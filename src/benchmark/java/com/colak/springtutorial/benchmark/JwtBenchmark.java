@@ -0,0 +1,68 @@
+package com.colak.springtutorial.benchmark;
+
+import com.colak.springtutorial.helper.JwtAlgorithm;
+import com.colak.springtutorial.helper.JwtHelper;
+import com.colak.springtutorial.helper.JwtValidationResult;
+import com.colak.springtutorial.helper.VerifiedJwt;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing and verifying an access token per signing algorithm, and of rejecting garbage and forged tokens
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    @Param({"HS256", "ES256", "EDDSA"})
+    public JwtAlgorithm algorithm;
+
+    private JwtHelper jwtHelper;
+    private String token;
+    private String forgedToken;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Signed by a key the verifying ring does not know
+        forgedToken = BenchmarkKeys.keyRing(algorithm).sign(Jwts.builder().subject("nick@gmail.com")).compact();
+        jwtHelper = new JwtHelper(BenchmarkKeys.keyRing(algorithm));
+        token = jwtHelper.generateAccessToken("nick@gmail.com", 1L, List.of("ROLE_USER"));
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtHelper.generateAccessToken("nick@gmail.com", 1L, List.of("ROLE_USER"));
+    }
+
+    @Benchmark
+    public VerifiedJwt verify() {
+        return jwtHelper.verify(token);
+    }
+
+    @Benchmark
+    public JwtValidationResult validateMalformed() {
+        return jwtHelper.validate("not-a-jwt");
+    }
+
+    @Benchmark
+    public JwtValidationResult validateForged() {
+        return jwtHelper.validate(forgedToken);
+    }
+}
@@ -0,0 +1,69 @@
+package com.colak.springtutorial.benchmark;
+
+import com.colak.springtutorial.jpa.LoginAttempt;
+import com.colak.springtutorial.repository.LoginAttemptRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login attempt inserts per second through the repository with different JDBC batch sizes.
+ * Ids always come from the pooled sequence and in-memory H2 has no network round trip, so a batch size of 1 is not
+ * what IDENTITY ids cost. That comparison is IdGenerationInsertBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginAttemptInsertBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({"1", "50", "100"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private LoginAttemptRepository repository;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(Map.of(
+                "spring.jpa.properties.hibernate.jdbc.batch_size", String.valueOf(batchSize)));
+        repository = context.getBean(LoginAttemptRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<LoginAttempt> saveAll() {
+        List<LoginAttempt> loginAttempts = new ArrayList<>(ROWS);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ROWS; i++) {
+            loginAttempts.add(new LoginAttempt("user" + (i % 100) + "@gmail.com", i % 5 != 0, now));
+        }
+        return repository.saveAll(loginAttempts);
+    }
+}
@@ -0,0 +1,57 @@
+package com.colak.springtutorial.benchmark;
+
+import com.colak.springtutorial.dto.login.LoginResponseDto;
+import com.colak.springtutorial.helper.JwtAlgorithm;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the login response with the ObjectMapper that Spring MVC uses, and with a writer bound to the type
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoginResponseSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter objectWriter;
+    private LoginResponseDto loginResponse;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        objectWriter = objectMapper.writerFor(LoginResponseDto.class);
+        String accessToken = BenchmarkKeys.keyRing(JwtAlgorithm.EDDSA)
+                .sign(Jwts.builder().subject("nick@gmail.com"))
+                .compact();
+        loginResponse = new LoginResponseDto("nick@gmail.com", accessToken, UUID.randomUUID().toString());
+    }
+
+    @Benchmark
+    public byte[] objectMapper() throws Exception {
+        return objectMapper.writeValueAsBytes(loginResponse);
+    }
+
+    @Benchmark
+    public byte[] objectWriter() throws Exception {
+        return objectWriter.writeValueAsBytes(loginResponse);
+    }
+}
@@ -0,0 +1,66 @@
+package com.colak.springtutorial.benchmark;
+
+import com.colak.springtutorial.service.password.PasswordEncoders;
+import com.colak.springtutorial.service.password.PasswordProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password checks per second on one core for each encoder configuration, to pick a cost that fits the login
+ * latency budget. A configuration is "bcrypt:strength" or "argon2:memoryKiB:iterations"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(1)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    private static final String PASSWORD = "123456";
+
+    @Param({"bcrypt:10", "bcrypt:12", "bcrypt:14", "argon2:16384:2", "argon2:65536:3"})
+    public String configuration;
+
+    private PasswordEncoder passwordEncoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        String[] parts = configuration.split(":");
+        PasswordProperties properties = switch (parts[0]) {
+            case PasswordEncoders.BCRYPT -> new PasswordProperties(
+                    PasswordEncoders.BCRYPT,
+                    new PasswordProperties.Bcrypt(Integer.parseInt(parts[1])),
+                    new PasswordProperties.Argon2(16, 32, 1, 16384, 2),
+                    new PasswordProperties.Executor(0, 100));
+            case PasswordEncoders.ARGON2 -> new PasswordProperties(
+                    PasswordEncoders.ARGON2,
+                    new PasswordProperties.Bcrypt(10),
+                    new PasswordProperties.Argon2(16, 32, 1, Integer.parseInt(parts[1]), Integer.parseInt(parts[2])),
+                    new PasswordProperties.Executor(0, 100));
+            default -> throw new IllegalArgumentException("Unknown encoder configuration: " + configuration);
+        };
+        passwordEncoder = PasswordEncoders.create(properties);
+        hash = passwordEncoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches(PASSWORD, hash);
+    }
+}
@@ -0,0 +1,33 @@
+package com.colak.springtutorial.loadtest;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Requests the server is working on at the same time, counted by {@link OperationTaggingFilter}.
+ * With platform threads the peak is capped by the Tomcat thread pool, with virtual threads only by the offered load
+ */
+@UtilityClass
+class InFlightRequests {
+
+    private static final AtomicInteger CURRENT = new AtomicInteger();
+    private static final AtomicInteger PEAK = new AtomicInteger();
+
+    static void started() {
+        PEAK.accumulateAndGet(CURRENT.incrementAndGet(), Math::max);
+    }
+
+    static void finished() {
+        CURRENT.decrementAndGet();
+    }
+
+    static int peak() {
+        return PEAK.get();
+    }
+
+    // The peak starts again from the requests that are running now
+    static void reset() {
+        PEAK.set(CURRENT.get());
+    }
+}
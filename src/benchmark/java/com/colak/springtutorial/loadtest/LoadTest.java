@@ -0,0 +1,294 @@
+package com.colak.springtutorial.loadtest;
+
+import com.colak.springtutorial.benchmark.BenchmarkApplication;
+import com.colak.springtutorial.configuration.BearerAuthenticationConverter;
+import com.colak.springtutorial.dto.login.LoginRequestDto;
+import com.colak.springtutorial.dto.login.LoginResponseDto;
+import com.colak.springtutorial.dto.refreshtoken.RefreshTokenRequestDTO;
+import com.colak.springtutorial.dto.signup.SignupRequestDto;
+import com.colak.springtutorial.helper.JwtKeyRing;
+import com.colak.springtutorial.jpa.User;
+import com.colak.springtutorial.service.registration.RegistrationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Starts the application in-process, seeds users and replays a weighted mix of login, refresh, login attempt and
+ * invalid token requests for a fixed time. Reports throughput, latency percentiles, error rates and SQL statements
+ * per request for each operation, the peak number of requests in flight on the server, and writes the full latency
+ * histograms to target/loadtest.
+ * Requests are sent at a fixed rate and their latency is measured from the time they were scheduled, not from the time
+ * they were sent. A closed loop would wait for a stalled response before sending the next request, and so leave out
+ * exactly the requests that would have queued up behind the stall (coordinated omission).
+ * Arguments that do not start with "loadtest." are passed to the application, e.g.
+ * --spring.threads.virtual.enabled=false or --jwt.authentication-cache.enabled=true
+ */
+public class LoadTest {
+
+    private static final String PASSWORD = "123456";
+    private static final Path REPORT_DIRECTORY = Path.of("target", "loadtest");
+
+    private final LoadTestOptions options;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final Operation[] weightedOperations;
+    private final String forgedToken = JwtKeyRing.ephemeral().sign(Jwts.builder().subject("nobody@gmail.com")).compact();
+
+    LoadTest(LoadTestOptions options, ObjectMapper objectMapper, int port) {
+        this.options = options;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.baseUri = URI.create("http://localhost:" + port);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+        List<Operation> operations = new ArrayList<>();
+        options.mix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                operations.add(operation);
+            }
+        });
+        this.weightedOperations = operations.toArray(Operation[]::new);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> arguments = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            arguments.put(parts[0], parts.length > 1 ? parts[1] : "true");
+        }
+        LoadTestOptions options = LoadTestOptions.from(arguments);
+
+        Map<String, String> properties = new LinkedHashMap<>();
+        arguments.forEach((name, value) -> {
+            if (!LoadTestOptions.isOption(name)) {
+                properties.put(name, value);
+            }
+        });
+        properties.put("spring.jpa.properties.hibernate.session_factory.statement_inspector", StatementCounter.class.getName());
+
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start(properties, registerOperationTaggingFilter())) {
+            seedUsers(context.getBean(RegistrationService.class), options.users());
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            new LoadTest(options, context.getBean(ObjectMapper.class), port).run();
+        }
+    }
+
+    private static ApplicationContextInitializer<ConfigurableApplicationContext> registerOperationTaggingFilter() {
+        return context -> ((GenericApplicationContext) context).registerBean("operationTaggingFilter", FilterRegistrationBean.class, () -> {
+            FilterRegistrationBean<OperationTaggingFilter> registration = new FilterRegistrationBean<>(new OperationTaggingFilter());
+            // Before the security filters, which already run queries
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+            return registration;
+        });
+    }
+
+    /**
+     * Signs up the users with as many threads as there are processors, so that the bounded hashing pool never
+     * rejects a signup
+     */
+    private static void seedUsers(RegistrationService registrationService, int users) throws Exception {
+        System.out.printf("Seeding %d users%n", users);
+        // The first signup creates the role, the others find it
+        registrationService.signup(new SignupRequestDto(email(0), PASSWORD, List.of("ROLE_USER")));
+        List<Callable<User>> signups = new ArrayList<>();
+        for (int i = 1; i < users; i++) {
+            SignupRequestDto signupRequest = new SignupRequestDto(email(i), PASSWORD, List.of("ROLE_USER"));
+            signups.add(() -> registrationService.signup(signupRequest));
+        }
+        try (ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors())) {
+            for (Future<User> future : executor.invokeAll(signups)) {
+                future.get();
+            }
+        }
+    }
+
+    private static String email(int user) {
+        return "loadtest" + user + "@gmail.com";
+    }
+
+    void run() throws Exception {
+        long start = System.nanoTime();
+        long measurementStart = start + options.warmup().toNanos();
+        long end = measurementStart + options.duration().toNanos();
+        // Every virtual user sends one request per interval, the users are spread evenly over the first interval
+        long interval = (long) (options.concurrency() * 1_000_000_000.0 / options.rate());
+        System.out.printf("Running %d virtual users at %.0f requests/s for %s after a warmup of %s%n",
+                options.concurrency(), options.rate(), options.duration(), options.warmup());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.concurrency(); i++) {
+                String email = email(i % options.users());
+                long firstRequest = start + interval * i / options.concurrency();
+                executor.submit(() -> runVirtualUser(email, firstRequest, interval, measurementStart, end));
+            }
+            Thread.sleep(options.warmup().toMillis());
+            StatementCounter.reset();
+            InFlightRequests.reset();
+        }
+        long measuredNanos = System.nanoTime() - measurementStart;
+        report(measuredNanos / 1_000_000_000.0);
+    }
+
+    private Void runVirtualUser(String email, long scheduled, long interval, long measurementStart, long end) {
+        VirtualUser user = new VirtualUser(email);
+        for (; scheduled < end && !Thread.currentThread().isInterrupted(); scheduled += interval) {
+            // A user that fell behind sends right away, the time it was late is part of the latency
+            long delay;
+            while ((delay = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            Operation operation = weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)];
+            // Every operation but the invalid token needs a session
+            if (user.accessToken == null && operation != Operation.INVALID_TOKEN) {
+                operation = Operation.LOGIN;
+            }
+            execute(user, operation, scheduled, scheduled >= measurementStart);
+        }
+        return null;
+    }
+
+    private void execute(VirtualUser user, Operation operation, long scheduled, boolean measured) {
+        HttpRequest request = buildRequest(user, operation);
+        HttpResponse<String> response = null;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            // Counted as an error below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long latency = System.nanoTime() - scheduled;
+        boolean success = response != null && response.statusCode() == operation.getExpectedStatus();
+        if (measured) {
+            stats.get(operation).record(latency, success);
+        }
+        if (operation == Operation.LOGIN || operation == Operation.REFRESH) {
+            user.update(success ? readLoginResponse(response.body()) : null);
+        }
+    }
+
+    private HttpRequest buildRequest(VirtualUser user, Operation operation) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .header(Operation.HEADER, operation.getId());
+        return switch (operation) {
+            case LOGIN -> builder.uri(baseUri.resolve("/api/auth/login"))
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .POST(json(new LoginRequestDto(user.email, PASSWORD)))
+                    .build();
+            case REFRESH -> builder.uri(baseUri.resolve("/api/auth/refreshToken"))
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .POST(json(new RefreshTokenRequestDTO(user.refreshToken)))
+                    .build();
+            case LOGIN_ATTEMPTS -> builder.uri(baseUri.resolve("/api/auth/loginAttempts"))
+                    .header(HttpHeaders.AUTHORIZATION, BearerAuthenticationConverter.BEARER_PREFIX + user.accessToken)
+                    .GET()
+                    .build();
+            case INVALID_TOKEN -> builder.uri(baseUri.resolve("/api/auth/loginAttempts"))
+                    .header(HttpHeaders.AUTHORIZATION, BearerAuthenticationConverter.BEARER_PREFIX + forgedToken)
+                    .GET()
+                    .build();
+        };
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private LoginResponseDto readLoginResponse(String body) {
+        try {
+            return objectMapper.readValue(body, LoginResponseDto.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void report(double seconds) throws IOException {
+        Files.createDirectories(REPORT_DIRECTORY);
+        PrintStream out = System.out;
+        out.printf("%n%-14s %9s %10s %8s %9s %9s %9s %9s %9s %11s%n",
+                "operation", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "sql/request");
+        for (Operation operation : Operation.values()) {
+            OperationStats operationStats = stats.get(operation);
+            long count = operationStats.count();
+            if (count == 0) {
+                continue;
+            }
+            var histogram = operationStats.histogram();
+            out.printf("%-14s %9d %10.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f %11.2f%n",
+                    operation.getId(),
+                    count,
+                    count / seconds,
+                    100.0 * operationStats.errors() / count,
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(90) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0,
+                    (double) StatementCounter.count(operation.getId()) / count);
+            try (PrintStream histogramOut = new PrintStream(Files.newOutputStream(REPORT_DIRECTORY.resolve(operation.getId() + ".hgrm")))) {
+                // Values are recorded in microseconds, the file is in milliseconds
+                histogram.outputPercentileDistribution(histogramOut, 1000.0);
+            }
+        }
+        out.printf("%nTarget rate: %.0f requests/s%n", options.rate());
+        out.printf("Peak requests in flight on the server: %d%n", InFlightRequests.peak());
+        out.printf("SQL statements of background threads: %d%n", StatementCounter.count(StatementCounter.BACKGROUND));
+        out.printf("Latency histograms were written to %s%n", REPORT_DIRECTORY.toAbsolutePath());
+    }
+
+    private static final class VirtualUser {
+
+        private final String email;
+        private String accessToken;
+        private String refreshToken;
+
+        private VirtualUser(String email) {
+            this.email = email;
+        }
+
+        // A failed login or refresh ends the session, the next operation logs in again
+        private void update(LoginResponseDto loginResponse) {
+            accessToken = loginResponse == null ? null : loginResponse.accessToken();
+            refreshToken = loginResponse == null ? null : loginResponse.refreshToken();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.colak.springtutorial.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Options of a load test run, read from --loadtest.* arguments
+ *
+ * @param users       users seeded through RegistrationService before the run
+ * @param concurrency virtual users, the most requests that can be outstanding at the same time
+ * @param rate        requests per second of all virtual users together. Requests are sent on a fixed schedule, whether
+ *                    or not the previous one was answered in time
+ * @param warmup      time before measuring starts
+ * @param duration    measured time
+ * @param mix         relative weight of each operation, e.g. login:10,refresh:10,loginAttempts:70,invalidToken:10
+ */
+record LoadTestOptions(int users, int concurrency, double rate, Duration warmup, Duration duration, Map<Operation, Integer> mix) {
+
+    private static final String PREFIX = "loadtest.";
+
+    static LoadTestOptions from(Map<String, String> arguments) {
+        return new LoadTestOptions(
+                Integer.parseInt(arguments.getOrDefault(PREFIX + "users", "1000")),
+                Integer.parseInt(arguments.getOrDefault(PREFIX + "concurrency", "1000")),
+                Double.parseDouble(arguments.getOrDefault(PREFIX + "rate", "2000")),
+                Duration.parse(arguments.getOrDefault(PREFIX + "warmup", "PT10S")),
+                Duration.parse(arguments.getOrDefault(PREFIX + "duration", "PT60S")),
+                parseMix(arguments.getOrDefault(PREFIX + "mix", "login:10,refresh:10,loginAttempts:70,invalidToken:10")));
+    }
+
+    static boolean isOption(String name) {
+        return name.startsWith(PREFIX);
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights.put(Operation.fromId(parts[0]), Integer.parseInt(parts[1]));
+        }
+        return weights;
+    }
+}
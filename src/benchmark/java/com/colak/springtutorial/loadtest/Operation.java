@@ -0,0 +1,33 @@
+package com.colak.springtutorial.loadtest;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The requests of the load mix and the status each of them is expected to answer with
+ */
+@Getter
+@RequiredArgsConstructor
+enum Operation {
+
+    LOGIN("login", 200),
+    REFRESH("refresh", 200),
+    LOGIN_ATTEMPTS("loginAttempts", 200),
+    // A token signed by a key the application does not know
+    INVALID_TOKEN("invalidToken", 403);
+
+    // Sent in this header, so that the server side can attribute its SQL statements to the operation
+    static final String HEADER = "X-Load-Test-Operation";
+
+    private final String id;
+    private final int expectedStatus;
+
+    static Operation fromId(String id) {
+        for (Operation operation : values()) {
+            if (operation.id.equals(id)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + id);
+    }
+}
@@ -0,0 +1,29 @@
+package com.colak.springtutorial.loadtest;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Tags the request thread with the operation header of the load generator, for the {@link StatementCounter}, and
+ * counts the {@link InFlightRequests}
+ */
+class OperationTaggingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        StatementCounter.setCurrentOperation(request.getHeader(Operation.HEADER));
+        InFlightRequests.started();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            InFlightRequests.finished();
+            StatementCounter.clearCurrentOperation();
+        }
+    }
+}
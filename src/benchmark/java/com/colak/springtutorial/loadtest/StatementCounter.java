@@ -0,0 +1,44 @@
+package com.colak.springtutorial.loadtest;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the SQL statements Hibernate prepares, per operation of the request thread that runs them.
+ * Statements of background threads, like the login attempt writer, are counted as "background".
+ * Hibernate creates this class itself, so the counters are static
+ */
+public class StatementCounter implements StatementInspector {
+
+    static final String BACKGROUND = "background";
+
+    private static final ThreadLocal<String> CURRENT_OPERATION = new ThreadLocal<>();
+    private static final Map<String, LongAdder> COUNTS = new ConcurrentHashMap<>();
+
+    @Override
+    public String inspect(String sql) {
+        String operation = CURRENT_OPERATION.get();
+        COUNTS.computeIfAbsent(operation == null ? BACKGROUND : operation, key -> new LongAdder()).increment();
+        return sql;
+    }
+
+    static void setCurrentOperation(String operation) {
+        CURRENT_OPERATION.set(operation);
+    }
+
+    static void clearCurrentOperation() {
+        CURRENT_OPERATION.remove();
+    }
+
+    static long count(String operation) {
+        LongAdder count = COUNTS.get(operation);
+        return count == null ? 0 : count.sum();
+    }
+
+    static void reset() {
+        COUNTS.clear();
+    }
+}
@@ -0,0 +1,28 @@
+package com.colak.springtutorial.configuration;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.experimental.UtilityClass;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+
+import java.time.Duration;
+
+/**
+ * The cookie that browser clients receive their access token in. Login and sliding renewal set the same cookie,
+ * so a renewed cookie replaces the original one
+ */
+@UtilityClass
+public class AccessTokenCookie {
+
+    public static final Duration MAX_AGE = Duration.ofMinutes(30);
+
+    public static void add(HttpServletResponse response, String accessToken) {
+        ResponseCookie cookie = ResponseCookie.from(BearerAuthenticationConverter.COOKIE_NAME, accessToken)
+                .httpOnly(true)
+                .secure(false)
+                .path("/")
+                .maxAge(MAX_AGE)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+}
@@ -0,0 +1,61 @@
+package com.colak.springtutorial.configuration;
+
+import com.colak.springtutorial.helper.VerifiedJwt;
+import com.colak.springtutorial.service.accesstoken.AccessTokenService;
+import com.colak.springtutorial.service.refreshtokenservice.RefreshTokenService;
+import com.colak.springtutorial.service.userdetails.AuthenticatedUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Sliding renewal of the access token cookie. The new token is signed from the principal that has just been
+ * authenticated, so renewal never touches the database and cookie clients do not need the refresh token endpoint
+ * while they stay active. Renewed tokens keep the auth_time of the login, and a login older than the refresh token
+ * lifetime is not renewed any more, so an active session still ends where a refresh token would
+ */
+@Component
+public class AccessTokenRenewer {
+
+    private final JwtProperties.SlidingRenewal properties;
+    private final AccessTokenService accessTokenService;
+    private final Counter renewedCounter;
+
+    public AccessTokenRenewer(JwtProperties jwtProperties, AccessTokenService accessTokenService, MeterRegistry meterRegistry) {
+        this.properties = jwtProperties.slidingRenewal();
+        this.accessTokenService = accessTokenService;
+        this.renewedCounter = Counter.builder("auth.cookie.renewed")
+                .description("Access token cookies renewed before they expired")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds a new access token cookie to the response when the request was authenticated by a cookie token
+     * that expires within the window. Must be called before the response is committed
+     */
+    public void renewIfExpiring(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
+        if (!properties.enabled() || !BearerAuthenticationConverter.isCookieToken(request)) {
+            return;
+        }
+        if (!(authentication instanceof JwtAuthenticationToken jwtAuthentication)
+            || !(jwtAuthentication.getPrincipal() instanceof AuthenticatedUser user)) {
+            return;
+        }
+        VerifiedJwt jwt = jwtAuthentication.getJwt();
+        Instant now = Instant.now();
+        if (jwt == null || jwt.expiration().isAfter(now.plus(properties.window()))) {
+            return;
+        }
+        // Tokens without auth_time can not show how old their login is
+        if (jwt.authTime() == null || jwt.authTime().plus(RefreshTokenService.EXPIRY).isBefore(now)) {
+            return;
+        }
+        AccessTokenCookie.add(response, accessTokenService.renewAccessToken(user, jwt.authTime()));
+        renewedCounter.increment();
+    }
+}
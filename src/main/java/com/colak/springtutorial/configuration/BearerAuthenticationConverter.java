@@ -1,6 +1,5 @@
 package com.colak.springtutorial.configuration;
 
-import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
@@ -11,37 +10,106 @@ public class BearerAuthenticationConverter implements AuthenticationConverter {
     public static final String COOKIE_NAME = "accessToken";
     public static final String BEARER_PREFIX = "Bearer ";
 
+    // Set when the token came from the access token cookie instead of the Authorization header
+    public static final String COOKIE_TOKEN_ATTRIBUTE = BearerAuthenticationConverter.class.getName() + ".cookieToken";
+
     @Override
     public Authentication convert(HttpServletRequest request) {
+        String token = getToken(request);
+        if (token != null) {
+            return new JwtAuthenticationToken(token);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the token from the Authorization header, or else from the access token cookie.
+     * The only allocation is the token itself: the Cookie header is scanned in place, so the container never builds
+     * its Cookie[] array, and nothing is parsed when the Authorization header is present.
+     * Records in the request whether the token came from the cookie, see {@link #isCookieToken(HttpServletRequest)}
+     */
+    public static String getToken(HttpServletRequest request) {
         String token = getTokenFromRequestHeader(request);
         if (token == null) {
             token = getTokenFromCookie(request);
+            if (token != null) {
+                request.setAttribute(COOKIE_TOKEN_ATTRIBUTE, Boolean.TRUE);
+            }
         }
-        if (token != null) {
-            return new JwtAuthenticationToken(token);
+        return token;
+    }
+
+    /**
+     * Whether the token returned by {@link #getToken(HttpServletRequest)} came from the access token cookie
+     */
+    public static boolean isCookieToken(HttpServletRequest request) {
+        return request.getAttribute(COOKIE_TOKEN_ATTRIBUTE) != null;
+    }
+
+    private static String getTokenFromRequestHeader(HttpServletRequest httpServletRequest) {
+        String authHeader = httpServletRequest.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.length() > BEARER_PREFIX.length() && authHeader.startsWith(BEARER_PREFIX)) {
+            return authHeader.substring(BEARER_PREFIX.length());
         }
         return null;
     }
 
-    private String getTokenFromRequestHeader(HttpServletRequest httpServletRequest) {
-        String token = null;
-        String authHeader = httpServletRequest.getHeader(HttpHeaders.AUTHORIZATION);
-        if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)) {
-            token = authHeader.substring(7);
+    private static String getTokenFromCookie(HttpServletRequest httpServletRequest) {
+        // Tomcat joins the cookie headers of an HTTP/2 request into one header
+        String cookieHeader = httpServletRequest.getHeader(HttpHeaders.COOKIE);
+        if (cookieHeader == null) {
+            return null;
         }
-        return token;
+        return findCookieValue(cookieHeader, COOKIE_NAME);
     }
 
-    private String getTokenFromCookie(HttpServletRequest httpServletRequest) {
-        String token = null;
-        if (httpServletRequest.getCookies() != null) {
-            for (Cookie cookie : httpServletRequest.getCookies()) {
-                if (cookie.getName().equals(COOKIE_NAME)) {
-                    token = cookie.getValue();
-                    break;
+    /**
+     * Finds the value of the named cookie in a "name1=value1; name2=value2" header without splitting it.
+     * Like the container's parser it tolerates tabs and spaces around names, "=" and values, and a trailing ";".
+     * An empty value is returned as null
+     */
+    static String findCookieValue(String cookieHeader, String name) {
+        int length = cookieHeader.length();
+        int index = 0;
+        while (index < length) {
+            int end = cookieHeader.indexOf(';', index);
+            if (end < 0) {
+                end = length;
+            }
+            int nameStart = skipWhitespace(cookieHeader, index, end);
+            int equals = cookieHeader.indexOf('=', nameStart);
+            if (equals >= 0 && equals < end
+                && trimEnd(cookieHeader, nameStart, equals) - nameStart == name.length()
+                && cookieHeader.startsWith(name, nameStart)) {
+                int valueStart = skipWhitespace(cookieHeader, equals + 1, end);
+                int valueEnd = trimEnd(cookieHeader, valueStart, end);
+                // A quoted cookie value
+                if (valueEnd - valueStart >= 2 && cookieHeader.charAt(valueStart) == '"' && cookieHeader.charAt(valueEnd - 1) == '"') {
+                    valueStart++;
+                    valueEnd--;
                 }
+                return valueEnd > valueStart ? cookieHeader.substring(valueStart, valueEnd) : null;
             }
+            index = end + 1;
         }
-        return token;
+        return null;
+    }
+
+    private static int skipWhitespace(String value, int start, int end) {
+        while (start < end && isWhitespace(value.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(String value, int start, int end) {
+        while (end > start && isWhitespace(value.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t';
     }
 }
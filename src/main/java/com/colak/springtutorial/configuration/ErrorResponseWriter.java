@@ -0,0 +1,70 @@
+package com.colak.springtutorial.configuration;
+
+import com.colak.springtutorial.dto.ApiErrorResponseDto;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes {@link ApiErrorResponseDto} bodies for the security filters, which run before Spring MVC and its message
+ * converters. Fixed bodies are serialized once by {@link #prepare(int, String)} and then only copied to the response.
+ * Dynamic messages are streamed with a JsonGenerator, so no intermediate String or byte[] is built
+ */
+@Component
+public class ErrorResponseWriter {
+
+    /**
+     * A serialized error body, shared by all responses that send it
+     */
+    public record PreparedErrorResponse(int status, byte[] body) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final JsonFactory jsonFactory;
+
+    public ErrorResponseWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public PreparedErrorResponse prepare(int status, String description) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(new ApiErrorResponseDto(status, description));
+            return new PreparedErrorResponse(status, body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Can not serialize error response: " + description, e);
+        }
+    }
+
+    public void write(HttpServletResponse response, PreparedErrorResponse errorResponse) throws IOException {
+        response.setStatus(errorResponse.status());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(errorResponse.body().length);
+        OutputStream out = response.getOutputStream();
+        out.write(errorResponse.body());
+        out.flush();
+    }
+
+    /**
+     * Streams a body whose message is only known now. The field names are the ones Jackson gives ApiErrorResponseDto
+     */
+    public void write(HttpServletResponse response, int status, String description) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        // The container closes the response stream, not the generator
+        try (JsonGenerator generator = jsonFactory.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.writeStartObject();
+            generator.writeNumberField("errorCode", status);
+            generator.writeStringField("description", description);
+            generator.writeEndObject();
+        }
+    }
+}
@@ -1,71 +1,126 @@
 package com.colak.springtutorial.configuration;
 
-import com.colak.springtutorial.dto.ApiErrorResponseDto;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.colak.springtutorial.exception.InvalidTokenException;
+import com.colak.springtutorial.helper.AuthMetrics;
+import com.colak.springtutorial.helper.JwtValidationResult;
+import com.colak.springtutorial.helper.RateLimitedLogger;
+import com.colak.springtutorial.jfr.AuthenticationEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.web.util.matcher.AnyRequestMatcher;
 import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
-@RequiredArgsConstructor
+@Slf4j
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-    private final ObjectMapper objectMapper;
+    private static final RateLimitedLogger REJECTED_TOKEN_LOGGER = new RateLimitedLogger(log, 10, Duration.ofMinutes(1));
+
+    private final ErrorResponseWriter errorResponseWriter;
     private final AuthenticationManager authenticationManager;
-    private final RequestMatcher requestMatcher = AnyRequestMatcher.INSTANCE;
+    private final AccessTokenRenewer accessTokenRenewer;
+    // The response bodies of rejected tokens never change, so they are serialized once
+    private final Map<JwtValidationResult.Reason, ErrorResponseWriter.PreparedErrorResponse> rejectedTokenResponses;
+    // Compiled once from the same list that SecurityConfig permits
+    private final RequestMatcher publicEndpointMatcher = PublicEndpoints.matcher();
 
     private final BearerAuthenticationConverter authenticationConverter = new BearerAuthenticationConverter();
 
+    private final Timer tokenFoundTimer;
+    private final Timer tokenAbsentTimer;
+
+    public JwtAuthFilter(ErrorResponseWriter errorResponseWriter, AuthenticationManager authenticationManager,
+                         AccessTokenRenewer accessTokenRenewer, MeterRegistry meterRegistry) {
+        this.errorResponseWriter = errorResponseWriter;
+        this.authenticationManager = authenticationManager;
+        this.accessTokenRenewer = accessTokenRenewer;
+        this.tokenFoundTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.TOKEN_EXTRACTION, "found");
+        this.tokenAbsentTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.TOKEN_EXTRACTION, "absent");
+        this.rejectedTokenResponses = new EnumMap<>(JwtValidationResult.Reason.class);
+        for (JwtValidationResult.Reason reason : JwtValidationResult.Reason.values()) {
+            rejectedTokenResponses.put(reason, errorResponseWriter.prepare(HttpServletResponse.SC_FORBIDDEN, reason.getMessage()));
+        }
+    }
+
+    /**
+     * Public endpoints never look at the token, so neither extraction nor verification runs for them
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return publicEndpointMatcher.matches(request);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse, FilterChain filterChain)
             throws IOException {
+        // Costs next to nothing unless a recording has the event enabled
+        AuthenticationEvent event = new AuthenticationEvent();
+        event.begin();
+        long extractionDuration = 0;
+        long authenticationStart = 0;
+        Authentication authentication = null;
         try {
-            // Do not attempt to authenticate if the filter does not match the route
-            if (!requestMatcher.matches(httpServletRequest)) {
+            // Do not attempt to authenticate if request is already authenticated by an upstream filter
+            Authentication existingAuthentication = SecurityContextHolder.getContext().getAuthentication();
+            if (existingAuthentication != null && existingAuthentication.isAuthenticated()
+                && !(existingAuthentication instanceof AnonymousAuthenticationToken)) {
                 filterChain.doFilter(httpServletRequest, httpServletResponse);
                 return;
             }
 
             // Do not attempt to authenticate if authentication is not present
-            Authentication authentication = authenticationConverter.convert(httpServletRequest);
+            long start = System.nanoTime();
+            authentication = authenticationConverter.convert(httpServletRequest);
+            extractionDuration = System.nanoTime() - start;
+            (authentication == null ? tokenAbsentTimer : tokenFoundTimer).record(extractionDuration, TimeUnit.NANOSECONDS);
             if (authentication == null) {
+                event.complete(httpServletRequest.getRequestURI(), AuthenticationEvent.ABSENT, null, null, extractionDuration, 0);
                 filterChain.doFilter(httpServletRequest, httpServletResponse);
                 return;
             }
 
-            // Do not attempt to authenticate if request is already authenticated
-            // Authentication existingAuthentication = SecurityContextHolder.getContext().getAuthentication();
-            // if (existingAuthentication != null && existingAuthentication.isAuthenticated()) {
-            //     filterChain.doFilter(httpServletRequest, httpServletResponse);
-            //     return;
-            // }
-
             // Perform the authentication and set it in the security context
+            authenticationStart = System.nanoTime();
             Authentication populatedAuthentication = authenticationManager.authenticate(authentication);
+            event.complete(httpServletRequest.getRequestURI(), AuthenticationEvent.AUTHENTICATED, null, getToken(authentication),
+                    extractionDuration, System.nanoTime() - authenticationStart);
             SecurityContextHolder.getContext().setAuthentication(populatedAuthentication);
             httpServletRequest.setAttribute("isAuthenticated", true);
+            // A cookie token close to its expiry is replaced on this response, before anything commits it
+            accessTokenRenewer.renewIfExpiring(httpServletRequest, httpServletResponse, populatedAuthentication);
 
             filterChain.doFilter(httpServletRequest, httpServletResponse);
+        } catch (InvalidTokenException exception) {
+            event.complete(httpServletRequest.getRequestURI(), AuthenticationEvent.REJECTED, exception.getReason().name(),
+                    getToken(authentication), extractionDuration, elapsedSince(authenticationStart, authentication));
+            REJECTED_TOKEN_LOGGER.warn("Rejected token from {}: {}", httpServletRequest.getRemoteAddr(), exception.getReason());
+            errorResponseWriter.write(httpServletResponse, rejectedTokenResponses.get(exception.getReason()));
         } catch (Exception exception) {
-            ApiErrorResponseDto errorResponse = new ApiErrorResponseDto(HttpServletResponse.SC_FORBIDDEN, exception.getMessage());
-            httpServletResponse.setStatus(HttpServletResponse.SC_FORBIDDEN);
-            httpServletResponse.getWriter().write(toJson(errorResponse));
+            event.complete(httpServletRequest.getRequestURI(), AuthenticationEvent.FAILED, null,
+                    getToken(authentication), extractionDuration, elapsedSince(authenticationStart, authentication));
+            errorResponseWriter.write(httpServletResponse, HttpServletResponse.SC_FORBIDDEN, exception.getMessage());
         }
     }
 
-    private String toJson(ApiErrorResponseDto response) {
-        try {
-            return objectMapper.writeValueAsString(response);
-        } catch (Exception e) {
-            return ""; // Return an empty string if serialization fails
-        }
+    // Authentication starts as soon as a token was extracted, a failure before that took no authentication time
+    private static long elapsedSince(long authenticationStart, Authentication authentication) {
+        return authentication == null ? 0 : System.nanoTime() - authenticationStart;
+    }
+
+    private static String getToken(Authentication authentication) {
+        return authentication == null ? null : (String) authentication.getCredentials();
     }
 }
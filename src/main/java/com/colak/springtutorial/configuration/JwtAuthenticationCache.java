@@ -0,0 +1,83 @@
+package com.colak.springtutorial.configuration;
+
+import com.colak.springtutorial.helper.TokenDigest;
+import com.colak.springtutorial.helper.VerifiedJwt;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of verified tokens keyed by the digest of the raw token. It holds only the immutable claims:
+ * ProviderManager copies the request details into the authentication it returns and erases its credentials,
+ * so every request builds its own authentication from the cached claims.
+ * Every entry expires together with its token, so cached claims never outlive the token's exp claim.
+ * Hit, miss and eviction counters are published as "cache.*" metrics with the tag cache=jwt.authentication.
+ * The cache is never used in strict mode, which checks the token and loads the user on every request
+ */
+@Slf4j
+@Component
+public class JwtAuthenticationCache {
+
+    private static final String CACHE_NAME = "jwt.authentication";
+
+    // null when the cache is disabled
+    private final Cache<String, VerifiedJwt> cache;
+
+    public JwtAuthenticationCache(JwtProperties jwtProperties, MeterRegistry meterRegistry) {
+        JwtProperties.AuthenticationCache properties = jwtProperties.authenticationCache();
+        if (!properties.enabled()) {
+            this.cache = null;
+            return;
+        }
+        if (jwtProperties.strict()) {
+            log.warn("jwt.authentication-cache is ignored because jwt.strict loads the user on every request");
+            this.cache = null;
+            return;
+        }
+        // Caffeine evicts by W-TinyLFU once maximumSize is reached
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached claims of the token, or verifies the token and caches its claims.
+     * Rejected tokens are not cached, because the verifier throws
+     */
+    public VerifiedJwt get(String token, Function<String, VerifiedJwt> verifier) {
+        if (cache == null) {
+            return verifier.apply(token);
+        }
+        return cache.get(TokenDigest.sha256(token), key -> verifier.apply(token));
+    }
+
+    private static class TokenExpiry implements Expiry<String, VerifiedJwt> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedJwt value, long currentTime) {
+            Duration remaining = Duration.between(Instant.now(), value.expiration());
+            return Math.max(remaining.toNanos(), 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedJwt value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedJwt value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
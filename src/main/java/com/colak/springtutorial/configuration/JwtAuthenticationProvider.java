@@ -1,33 +1,119 @@
 package com.colak.springtutorial.configuration;
 
+import com.colak.springtutorial.exception.InvalidTokenException;
+import com.colak.springtutorial.helper.AuthMetrics;
 import com.colak.springtutorial.helper.JwtHelper;
+import com.colak.springtutorial.helper.JwtValidationResult;
+import com.colak.springtutorial.helper.VerifiedJwt;
+import com.colak.springtutorial.jfr.TokenVerificationEvent;
+import com.colak.springtutorial.service.userdetails.AuthenticatedUser;
 import com.colak.springtutorial.service.userdetails.UserDetailsServiceImpl;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationProvider implements AuthenticationProvider {
 
+    private final JwtHelper jwtHelper;
     private final UserDetailsServiceImpl userDetailsService;
+    private final JwtAuthenticationCache authenticationCache;
+    private final JwtProperties jwtProperties;
+
+    private final Timer validTokenTimer;
+    private final Map<JwtValidationResult.Reason, Timer> invalidTokenTimers;
+
+    public JwtAuthenticationProvider(JwtHelper jwtHelper, UserDetailsServiceImpl userDetailsService,
+                                     JwtAuthenticationCache authenticationCache, JwtProperties jwtProperties,
+                                     MeterRegistry meterRegistry) {
+        this.jwtHelper = jwtHelper;
+        this.userDetailsService = userDetailsService;
+        this.authenticationCache = authenticationCache;
+        this.jwtProperties = jwtProperties;
+        this.validTokenTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.TOKEN_VERIFICATION, "valid");
+        this.invalidTokenTimers = new EnumMap<>(JwtValidationResult.Reason.class);
+        for (JwtValidationResult.Reason reason : JwtValidationResult.Reason.values()) {
+            invalidTokenTimers.put(reason, AuthMetrics.stageTimer(meterRegistry, AuthMetrics.TOKEN_VERIFICATION,
+                    reason.name().toLowerCase(Locale.ROOT)));
+        }
+    }
 
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
         String token = (String) authentication.getCredentials();
-        if (JwtHelper.isTokenExpired(token)) {
-            return null;
+        TokenVerificationEvent event = new TokenVerificationEvent();
+        event.begin();
+        // A cache hit skips the parse. The cached claims are immutable, the authentication below is built per request
+        long start = System.nanoTime();
+        VerifiedJwt jwt;
+        try {
+            jwt = authenticationCache.get(token, this::verify);
+        } catch (InvalidTokenException exception) {
+            event.complete(TokenVerificationEvent.REJECTED, exception.getReason().name(), token, jwtProperties.strict(),
+                    System.nanoTime() - start, 0);
+            throw exception;
         }
-        String username = JwtHelper.extractUsername(token);
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        long verificationDuration = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        UserDetails userDetails;
+        try {
+            userDetails = jwtProperties.strict()
+                    ? userDetailsService.loadUserFromDatabase(jwt.subject())
+                    : toUserDetails(jwt);
+        } catch (RuntimeException exception) {
+            event.complete(TokenVerificationEvent.FAILED, null, token, jwtProperties.strict(),
+                    verificationDuration, System.nanoTime() - start);
+            throw exception;
+        }
+        event.complete(TokenVerificationEvent.VALID, null, token, jwtProperties.strict(),
+                verificationDuration, System.nanoTime() - start);
         if (userDetails == null) {
             return null;
         }
 
-        return new JwtAuthenticationToken(userDetails, userDetails.getAuthorities());
+        return new JwtAuthenticationToken(userDetails, jwt, userDetails.getAuthorities());
+    }
+
+    private VerifiedJwt verify(String token) {
+        // Signature and expiry are checked by a single parse. A rejected token is thrown as a shared InvalidTokenException
+        // without a stack trace, which JwtAuthFilter turns into a pre-serialized 403
+        long start = System.nanoTime();
+        JwtValidationResult result = jwtHelper.validate(token);
+        long verificationDuration = System.nanoTime() - start;
+        return switch (result) {
+            case JwtValidationResult.Valid valid -> {
+                validTokenTimer.record(verificationDuration, TimeUnit.NANOSECONDS);
+                yield valid.jwt();
+            }
+            case JwtValidationResult.Invalid invalid -> {
+                invalidTokenTimers.get(invalid.reason()).record(verificationDuration, TimeUnit.NANOSECONDS);
+                throw InvalidTokenException.of(invalid.reason());
+            }
+        };
+    }
+
+    /**
+     * Rebuilds the principal from the verified claims alone, without any repository access
+     */
+    private static AuthenticatedUser toUserDetails(VerifiedJwt jwt) {
+        return new AuthenticatedUser(
+                jwt.userId(),
+                jwt.subject(),
+                "",
+                jwt.roles().stream()
+                        .map(SimpleGrantedAuthority::new)
+                        .toList());
     }
 
     @Override
@@ -1,5 +1,6 @@
 package com.colak.springtutorial.configuration;
 
+import com.colak.springtutorial.helper.VerifiedJwt;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 
@@ -8,15 +9,17 @@ import java.util.Collection;
 public class JwtAuthenticationToken extends AbstractAuthenticationToken {
     private Object principal;
     private String token;
+    private VerifiedJwt jwt;
 
     public JwtAuthenticationToken(String token) {
         super(null);
         this.token = token;
     }
 
-    public JwtAuthenticationToken(Object principal, Collection<? extends GrantedAuthority> authorities) {
+    public JwtAuthenticationToken(Object principal, VerifiedJwt jwt, Collection<? extends GrantedAuthority> authorities) {
         super(authorities);
         this.principal = principal;
+        this.jwt = jwt;
         super.setAuthenticated(true);
     }
 
@@ -29,4 +32,11 @@ public class JwtAuthenticationToken extends AbstractAuthenticationToken {
     public Object getPrincipal() {
         return principal;
     }
+
+    /**
+     * The verified claims of the token. Only set once the token has been authenticated.
+     */
+    public VerifiedJwt getJwt() {
+        return jwt;
+    }
 }
@@ -0,0 +1,69 @@
+package com.colak.springtutorial.configuration;
+
+import com.colak.springtutorial.helper.JwtAlgorithm;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "jwt")
+public record JwtProperties(
+        // When true the user is loaded from the database on every request, without the user details cache, so that
+        // deleted users and changed roles take effect immediately. Otherwise the principal is rebuilt from the
+        // verified claims of the token
+        @DefaultValue("false") boolean strict,
+        @DefaultValue AuthenticationCache authenticationCache,
+        @DefaultValue Signing signing,
+        @DefaultValue SlidingRenewal slidingRenewal) {
+
+    /**
+     * Caches the authenticated token so that a token sent many times in its lifetime is verified only once
+     */
+    public record AuthenticationCache(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("10000") long maximumSize) {
+    }
+
+    /**
+     * Replaces a valid access token cookie that expires within the window with a new one on the same response,
+     * so that browser clients stay logged in without calling the refresh token endpoint.
+     * Bearer tokens are never renewed, because the client would not see the new token
+     */
+    public record SlidingRenewal(
+            @DefaultValue("false") boolean enabled,
+            @DefaultValue("5m") Duration window) {
+    }
+
+    /**
+     * New tokens are signed with the active key, tokens are verified with the key named by their "kid" header.
+     * Without any keys a random HS256 key is generated at startup
+     */
+    public record Signing(
+            // Defaults to the first key that has a private key or secret
+            String activeKeyId,
+            @DefaultValue List<SigningKey> keys) {
+    }
+
+    /**
+     * A key is read either from PEM files or from a keystore. HS256 keys use a Base64 secret or a secret key entry.
+     * An ES256 or EdDSA key without a private key only verifies tokens, which keeps a rotated key valid until
+     * the tokens it signed expire
+     */
+    public record SigningKey(
+            String id,
+            @DefaultValue("HS256") JwtAlgorithm algorithm,
+            String secret,
+            // Resource locations, e.g. file:/etc/jwt/private.pem or classpath:jwt/public.pem
+            String privateKey,
+            String publicKey,
+            Keystore keystore) {
+    }
+
+    public record Keystore(
+            String location,
+            @DefaultValue("PKCS12") String type,
+            String password,
+            String alias) {
+    }
+}
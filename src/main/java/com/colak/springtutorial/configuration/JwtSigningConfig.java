@@ -0,0 +1,123 @@
+package com.colak.springtutorial.configuration;
+
+import com.colak.springtutorial.helper.JwtAlgorithm;
+import com.colak.springtutorial.helper.JwtHelper;
+import com.colak.springtutorial.helper.JwtKey;
+import com.colak.springtutorial.helper.JwtKeyRing;
+import com.colak.springtutorial.helper.PemKeys;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.util.List;
+
+/**
+ * Loads the JWT keys once at startup. Each application context signs and verifies with its own {@link JwtHelper}
+ */
+@Configuration
+@Slf4j
+@RequiredArgsConstructor
+public class JwtSigningConfig {
+
+    private final JwtProperties jwtProperties;
+    private final ResourceLoader resourceLoader;
+
+    @Bean
+    public JwtKeyRing jwtKeyRing() {
+        JwtProperties.Signing signing = jwtProperties.signing();
+        JwtKeyRing keyRing;
+        if (signing.keys().isEmpty()) {
+            log.warn("No JWT signing keys are configured, tokens are signed with a random key and do not survive a restart");
+            keyRing = JwtKeyRing.ephemeral();
+        } else {
+            List<JwtKey> keys = signing.keys().stream()
+                    .map(this::loadKey)
+                    .toList();
+            keyRing = new JwtKeyRing(signing.activeKeyId(), keys);
+        }
+        log.info("Signing JWTs with key id: {}", keyRing.activeKeyId());
+        return keyRing;
+    }
+
+    @Bean
+    public JwtHelper jwtHelper(JwtKeyRing jwtKeyRing) {
+        return new JwtHelper(jwtKeyRing);
+    }
+
+    private JwtKey loadKey(JwtProperties.SigningKey properties) {
+        if (properties.id() == null) {
+            throw new IllegalStateException("JWT key id is required");
+        }
+        JwtAlgorithm algorithm = properties.algorithm();
+        if (properties.keystore() != null) {
+            return loadFromKeystore(properties.id(), algorithm, properties.keystore());
+        }
+        if (!algorithm.isAsymmetric()) {
+            if (properties.secret() == null) {
+                throw new IllegalStateException("JWT key %s needs a secret".formatted(properties.id()));
+            }
+            // hmacShaKeyFor rejects secrets that are shorter than 256 bits
+            Key secretKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(properties.secret()));
+            return new JwtKey(properties.id(), algorithm, secretKey, secretKey);
+        }
+        if (properties.publicKey() == null) {
+            throw new IllegalStateException("JWT key %s needs a public key".formatted(properties.id()));
+        }
+        Key publicKey = PemKeys.publicKey(read(properties.publicKey()), algorithm.getKeyFactoryAlgorithm());
+        Key privateKey = properties.privateKey() == null
+                ? null
+                : PemKeys.privateKey(read(properties.privateKey()), algorithm.getKeyFactoryAlgorithm());
+        return new JwtKey(properties.id(), algorithm, privateKey, publicKey);
+    }
+
+    private JwtKey loadFromKeystore(String id, JwtAlgorithm algorithm, JwtProperties.Keystore properties) {
+        char[] password = properties.password() == null ? null : properties.password().toCharArray();
+        try (InputStream inputStream = resource(properties.location()).getInputStream()) {
+            KeyStore keyStore = KeyStore.getInstance(properties.type());
+            keyStore.load(inputStream, password);
+            Key key = keyStore.getKey(properties.alias(), password);
+            if (!algorithm.isAsymmetric()) {
+                if (key == null) {
+                    throw new IllegalStateException("Keystore %s has no secret key %s".formatted(properties.location(), properties.alias()));
+                }
+                return new JwtKey(id, algorithm, key, key);
+            }
+            Certificate certificate = keyStore.getCertificate(properties.alias());
+            if (certificate == null) {
+                throw new IllegalStateException("Keystore %s has no certificate %s".formatted(properties.location(), properties.alias()));
+            }
+            // A trusted certificate entry without a private key only verifies tokens
+            return new JwtKey(id, algorithm, key, certificate.getPublicKey());
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Can not read keystore " + properties.location(), e);
+        }
+    }
+
+    private String read(String location) {
+        try {
+            return resource(location).getContentAsString(StandardCharsets.US_ASCII);
+        } catch (IOException e) {
+            throw new IllegalStateException("Can not read JWT key " + location, e);
+        }
+    }
+
+    private Resource resource(String location) {
+        Resource resource = resourceLoader.getResource(location);
+        if (!resource.exists()) {
+            throw new IllegalStateException("JWT key does not exist: " + location);
+        }
+        return resource;
+    }
+}
@@ -0,0 +1,56 @@
+package com.colak.springtutorial.configuration;
+
+import com.colak.springtutorial.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Checks email and password like {@link DaoAuthenticationProvider}, but re-encodes an outdated hash only when
+ * the password hashing pool accepts the work. DaoAuthenticationProvider would fail the login of a user who just
+ * gave the correct password with 429. A skipped upgrade is tried again on the next login
+ */
+public class PasswordAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final PasswordEncoder passwordEncoder;
+    // Not handed to DaoAuthenticationProvider, which would upgrade the hash itself
+    private final UserDetailsPasswordService userDetailsPasswordService;
+
+    private final Counter upgradedCounter;
+    private final Counter upgradeSkippedCounter;
+
+    public PasswordAuthenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder,
+                                          UserDetailsPasswordService userDetailsPasswordService,
+                                          MeterRegistry meterRegistry) {
+        super(passwordEncoder);
+        setUserDetailsService(userDetailsService);
+        this.passwordEncoder = passwordEncoder;
+        this.userDetailsPasswordService = userDetailsPasswordService;
+        this.upgradedCounter = Counter.builder("password.upgrade")
+                .tag("outcome", "upgraded")
+                .register(meterRegistry);
+        this.upgradeSkippedCounter = Counter.builder("password.upgrade")
+                .tag("outcome", "skipped")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                         UserDetails user) {
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            try {
+                String newPassword = passwordEncoder.encode(authentication.getCredentials().toString());
+                user = userDetailsPasswordService.updatePassword(user, newPassword);
+                upgradedCounter.increment();
+            } catch (TooManyRequestsException exception) {
+                upgradeSkippedCounter.increment();
+            }
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+}
@@ -0,0 +1,101 @@
+package com.colak.springtutorial.configuration;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A char level trie of path patterns, built once and only read afterward, so it is safe to share between threads.
+ * Matching costs one step per char of the path no matter how many patterns there are
+ */
+class PathTrie {
+
+    private static final String SUBTREE_SUFFIX = "/**";
+
+    private final Node root = new Node();
+
+    PathTrie(List<PublicEndpoints.Endpoint> endpoints) {
+        for (PublicEndpoints.Endpoint endpoint : endpoints) {
+            String pattern = endpoint.pattern();
+            String method = endpoint.method().name();
+            if (pattern.endsWith(SUBTREE_SUFFIX)) {
+                Node node = insert(pattern.substring(0, pattern.length() - SUBTREE_SUFFIX.length()));
+                node.subtreeMethods = add(node.subtreeMethods, method);
+            } else {
+                Node node = insert(pattern);
+                node.exactMethods = add(node.exactMethods, method);
+            }
+        }
+    }
+
+    boolean matches(String method, String path) {
+        Node node = root;
+        int length = path.length();
+        for (int i = 0; i < length; i++) {
+            char c = path.charAt(i);
+            // A "/**" pattern matches everything below its path
+            if (c == '/' && contains(node.subtreeMethods, method)) {
+                return true;
+            }
+            node = node.child(c);
+            if (node == null) {
+                return false;
+            }
+        }
+        return contains(node.exactMethods, method) || contains(node.subtreeMethods, method);
+    }
+
+    private Node insert(String path) {
+        Node node = root;
+        for (int i = 0; i < path.length(); i++) {
+            node = node.getOrAddChild(path.charAt(i));
+        }
+        return node;
+    }
+
+    private static String[] add(String[] methods, String method) {
+        String[] result = Arrays.copyOf(methods, methods.length + 1);
+        result[methods.length] = method;
+        return result;
+    }
+
+    private static boolean contains(String[] methods, String method) {
+        for (String candidate : methods) {
+            if (candidate.equals(method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Node {
+
+        private static final String[] NO_METHODS = new String[0];
+
+        // Paths have few branches, so a linear scan over small arrays beats a map of boxed chars
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private String[] exactMethods = NO_METHODS;
+        private String[] subtreeMethods = NO_METHODS;
+
+        private Node child(char c) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node getOrAddChild(char c) {
+            Node child = child(c);
+            if (child == null) {
+                child = new Node();
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                keys[keys.length - 1] = c;
+                children = Arrays.copyOf(children, children.length + 1);
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
+    }
+}
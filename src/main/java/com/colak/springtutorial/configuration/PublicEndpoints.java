@@ -0,0 +1,50 @@
+package com.colak.springtutorial.configuration;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.experimental.UtilityClass;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.List;
+
+/**
+ * The endpoints that do not need a token. SecurityConfig permits them and JwtAuthFilter skips them,
+ * so both always agree on what is public. The actuator endpoints are only served on management.server.port,
+ * which is not reachable from outside
+ */
+@UtilityClass
+public class PublicEndpoints {
+
+    /**
+     * A pattern ending with "/**" matches the path itself and everything below it, any other pattern matches exactly
+     */
+    public record Endpoint(HttpMethod method, String pattern) {
+    }
+
+    public static final List<Endpoint> ENDPOINTS = List.of(
+            new Endpoint(HttpMethod.POST, "/api/auth/signup/**"),
+            new Endpoint(HttpMethod.POST, "/api/auth/login/**"),
+            new Endpoint(HttpMethod.POST, "/api/auth/refreshToken/**"),
+            new Endpoint(HttpMethod.GET, "/.well-known/jwks.json"),
+            new Endpoint(HttpMethod.GET, "/actuator/health/**"),
+            new Endpoint(HttpMethod.GET, "/actuator/prometheus"));
+
+    /**
+     * The endpoints compiled into a path trie, so matching a request walks its path once and allocates nothing
+     */
+    public static RequestMatcher matcher() {
+        PathTrie pathTrie = new PathTrie(ENDPOINTS);
+        return new RequestMatcher() {
+            @Override
+            public boolean matches(HttpServletRequest request) {
+                // With the DispatcherServlet mapped to "/" the servlet path is the whole decoded and normalized path
+                return request.getPathInfo() == null && pathTrie.matches(request.getMethod(), request.getServletPath());
+            }
+
+            @Override
+            public String toString() {
+                return "PublicEndpoints " + ENDPOINTS;
+            }
+        };
+    }
+}
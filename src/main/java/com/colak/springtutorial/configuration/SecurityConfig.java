@@ -1,18 +1,20 @@
 package com.colak.springtutorial.configuration;
 
+import com.colak.springtutorial.service.password.BoundedPasswordEncoder;
+import com.colak.springtutorial.service.password.PasswordEncoders;
+import com.colak.springtutorial.service.password.PasswordHashingExecutor;
+import com.colak.springtutorial.service.password.PasswordProperties;
 import com.colak.springtutorial.service.userdetails.UserDetailsServiceImpl;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -25,16 +27,21 @@ public class SecurityConfig {
     private final UserDetailsServiceImpl userDetailsService;
     private final UnauthorizedHandler unauthorizedHandler;
     private final JwtAuthenticationProvider jwtAuthenticationProvider;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final PasswordProperties passwordProperties;
+    private final MeterRegistry meterRegistry;
 
+    // Hashing runs on a bounded pool, so that a burst of logins can not take every request thread
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BoundedPasswordEncoder(PasswordEncoders.create(passwordProperties), passwordHashingExecutor, meterRegistry);
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, ObjectMapper objectMapper, AuthenticationManager authenticationManager)
+    public SecurityFilterChain filterChain(HttpSecurity http, ErrorResponseWriter errorResponseWriter, AuthenticationManager authenticationManager,
+                                           AccessTokenRenewer accessTokenRenewer)
             throws Exception {
-        JwtAuthFilter jwtAuthFilter = new JwtAuthFilter(objectMapper, authenticationManager);
+        JwtAuthFilter jwtAuthFilter = new JwtAuthFilter(errorResponseWriter, authenticationManager, accessTokenRenewer, meterRegistry);
 
         return http
                 .cors(AbstractHttpConfigurer::disable)
@@ -45,13 +52,14 @@ public class SecurityConfig {
                 // This means that the application won't create or use HTTP sessions for security.
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 
-                .authorizeHttpRequests(auth -> auth
-                        // Permit access to our public endpoints
-                        .requestMatchers(HttpMethod.POST, "/api/auth/signup/**").permitAll()
-                        .requestMatchers(HttpMethod.POST, "/api/auth/login/**").permitAll()
-                        .requestMatchers(HttpMethod.POST, "/api/auth/refreshToken/**").permitAll()
-                        // Our private endpoints
-                        .anyRequest().authenticated())
+                .authorizeHttpRequests(auth -> {
+                    // Permit access to our public endpoints. JwtAuthFilter skips the same list
+                    for (PublicEndpoints.Endpoint endpoint : PublicEndpoints.ENDPOINTS) {
+                        auth.requestMatchers(endpoint.method(), endpoint.pattern()).permitAll();
+                    }
+                    // Our private endpoints
+                    auth.anyRequest().authenticated();
+                })
 
                 // We need jwt filter before the UsernamePasswordAuthenticationFilter.
                 // Since we need every request to be authenticated before going through spring security filter.
@@ -62,12 +70,13 @@ public class SecurityConfig {
     }
 
 
+    // UserDetailsServiceImpl is also a UserDetailsPasswordService, so hashes that need an upgrade
+    // are re-encoded with the configured algorithm after a successful login, when the hashing pool has room
     @Bean
     public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
         AuthenticationManagerBuilder authenticationManagerBuilder = http.getSharedObject(AuthenticationManagerBuilder.class);
-        authenticationManagerBuilder
-                .userDetailsService(userDetailsService)
-                .passwordEncoder(passwordEncoder());
+        authenticationManagerBuilder.authenticationProvider(
+                new PasswordAuthenticationProvider(userDetailsService, passwordEncoder(), userDetailsService, meterRegistry));
         authenticationManagerBuilder.authenticationProvider(jwtAuthenticationProvider);
         return authenticationManagerBuilder.build();
     }
@@ -1,42 +1,40 @@
 package com.colak.springtutorial.configuration;
 
-import com.colak.springtutorial.dto.ApiErrorResponseDto;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.colak.springtutorial.helper.RateLimitedLogger;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.io.OutputStream;
+import java.time.Duration;
 
 @Component
 @Slf4j
-@RequiredArgsConstructor
 public class UnauthorizedHandler implements AuthenticationEntryPoint {
 
-    private final ObjectMapper objectMapper;
+    // Every request without a token ends up here, so a scan of protected endpoints must not flood the log
+    private static final RateLimitedLogger UNAUTHORIZED_LOGGER = new RateLimitedLogger(log, 10, Duration.ofMinutes(1));
+
+    private final ErrorResponseWriter errorResponseWriter;
+    private final ErrorResponseWriter.PreparedErrorResponse unauthorizedResponse;
+
+    public UnauthorizedHandler(ErrorResponseWriter errorResponseWriter) {
+        this.errorResponseWriter = errorResponseWriter;
+        this.unauthorizedResponse = errorResponseWriter.prepare(
+                HttpServletResponse.SC_UNAUTHORIZED,
+                "Access denied: Authorization header is required.");
+    }
 
     @Override
     public void commence(HttpServletRequest request,
                          HttpServletResponse response,
                          AuthenticationException authException) throws IOException {
 
-        log.error("Unauthorized Error : {}", authException.getMessage());
-        response.setStatus(HttpStatus.UNAUTHORIZED.value());
-        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-
-        ApiErrorResponseDto apiErrorResponseDto = new ApiErrorResponseDto(
-                HttpServletResponse.SC_UNAUTHORIZED,
-                "Access denied: Authorization header is required.");
-        OutputStream out = response.getOutputStream();
-        objectMapper.writeValue(out, apiErrorResponseDto);
-        out.flush();
+        UNAUTHORIZED_LOGGER.warn("Unauthorized request to {}: {}", request.getRequestURI(), authException.getMessage());
+        errorResponseWriter.write(response, unauthorizedResponse);
 
         // This sends "text/html" response
         // response.sendError(HttpServletResponse.SC_UNAUTHORIZED, authException.getMessage());
@@ -0,0 +1,33 @@
+package com.colak.springtutorial.controller;
+
+import com.colak.springtutorial.helper.JwtKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Publishes the public signing keys, so that other services can verify our tokens locally
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    static final String JWKS_PATH = "/.well-known/jwks.json";
+
+    private final JwtKeyRing jwtKeyRing;
+
+    // http://localhost:8080/.well-known/jwks.json
+    @GetMapping(value = JWKS_PATH, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> jwks() {
+        // Keys only change on a restart, clients may cache them for a while and refetch on an unknown kid
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(jwtKeyRing.jwks());
+    }
+}
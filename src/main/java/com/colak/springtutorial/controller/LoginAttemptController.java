@@ -1,16 +1,17 @@
 package com.colak.springtutorial.controller;
 
-import com.colak.springtutorial.configuration.BearerAuthenticationConverter;
+import com.colak.springtutorial.configuration.JwtAuthenticationToken;
+import com.colak.springtutorial.dto.loginattempt.LoginAttemptPageResponseDto;
 import com.colak.springtutorial.dto.loginattempt.LoginAttemptResponseDto;
-import com.colak.springtutorial.helper.JwtHelper;
 import com.colak.springtutorial.jpa.LoginAttempt;
+import com.colak.springtutorial.service.loginattempt.LoginAttemptCursor;
+import com.colak.springtutorial.service.loginattempt.LoginAttemptPage;
 import com.colak.springtutorial.service.loginattempt.LoginAttemptService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -24,12 +25,27 @@ public class LoginAttemptController {
 
     // http://localhost:8080/api/auth/loginAttempts
     @GetMapping(value = "/loginAttempts")
-    public ResponseEntity<List<LoginAttemptResponseDto>> loginAttempts(@RequestHeader(HttpHeaders.AUTHORIZATION) String token) {
-        String email = JwtHelper.extractUsername(token.replace(BearerAuthenticationConverter.BEARER_PREFIX, ""));
+    public ResponseEntity<List<LoginAttemptResponseDto>> loginAttempts(JwtAuthenticationToken authentication) {
+        // The token has already been verified by JwtAuthFilter, reuse its claims instead of parsing it again
+        String email = authentication.getJwt().subject();
         List<LoginAttempt> loginAttempts = loginAttemptService.findRecentLoginAttempts(email);
         return ResponseEntity.ok(convertToDTOs(loginAttempts));
     }
 
+    // http://localhost:8080/api/auth/loginAttempts/page?size=20&before=2024-10-01T10:15:30.123_1051
+    @GetMapping(value = "/loginAttempts/page")
+    public ResponseEntity<LoginAttemptPageResponseDto> loginAttemptsPage(
+            JwtAuthenticationToken authentication,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String before) {
+        String email = authentication.getJwt().subject();
+        LoginAttemptCursor cursor = before == null ? null : LoginAttemptCursor.parse(before);
+        LoginAttemptPage page = loginAttemptService.findLoginAttempts(email, cursor, size);
+
+        String nextCursor = page.nextCursor() == null ? null : page.nextCursor().format();
+        return ResponseEntity.ok(new LoginAttemptPageResponseDto(convertToDTOs(page.loginAttempts()), nextCursor));
+    }
+
     private List<LoginAttemptResponseDto> convertToDTOs(List<LoginAttempt> loginAttempts) {
         return loginAttempts.stream()
                 .map(LoginAttemptResponseDto::convertToDTO)
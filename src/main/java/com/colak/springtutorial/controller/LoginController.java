@@ -1,25 +1,27 @@
 package com.colak.springtutorial.controller;
 
+import com.colak.springtutorial.configuration.AccessTokenCookie;
 import com.colak.springtutorial.dto.login.LoginRequestDto;
 import com.colak.springtutorial.dto.login.LoginResponseDto;
 import com.colak.springtutorial.service.accesstoken.AccessTokenService;
 import com.colak.springtutorial.service.loginattempt.LoginAttemptService;
+import com.colak.springtutorial.service.loginattempt.LoginThrottle;
 import com.colak.springtutorial.service.refreshtokenservice.RefreshTokenService;
+import com.colak.springtutorial.service.userdetails.AuthenticatedUser;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.ResponseCookie;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import static com.colak.springtutorial.configuration.BearerAuthenticationConverter.COOKIE_NAME;
-
 @RestController
 @RequestMapping(path = "/api/auth")
 @RequiredArgsConstructor
@@ -29,6 +31,7 @@ public class LoginController {
     private final LoginAttemptService loginAttemptService;
     private final AccessTokenService accessTokenService;
     private final RefreshTokenService refreshTokenService;
+    private final LoginThrottle loginThrottle;
 
     /**
      * The user does not have a Jwt Token in the request's Authorization header
@@ -37,33 +40,37 @@ public class LoginController {
     // http://localhost:8080/api/auth/login
     @PostMapping(value = "/login")
     public LoginResponseDto login(@Valid @RequestBody LoginRequestDto request,
+                                                  HttpServletRequest httpServletRequest,
                                                   HttpServletResponse response) {
         String email = request.email();
+        // The client address, also behind a trusted proxy (server.forward-headers-strategy)
+        String address = httpServletRequest.getRemoteAddr();
+        // Reject brute force attempts before spending any time on the password
+        loginThrottle.checkAllowed(email, address);
         try {
             // First authenticate the user
-            authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(email, request.password()));
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(email, request.password()));
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            loginThrottle.recordSuccess(email);
 
             // Generate a new Jwt token
-            String accessToken = accessTokenService.generateAccessToken(email);
+            String accessToken = accessTokenService.generateAccessToken(user);
             String refreshToken = refreshTokenService.createRefreshToken(email);
 
             loginAttemptService.addLoginAttempt(email, true);
 
-            // Add the token to ResponseCookie
-            // set cookie expiry for 30 minutes
-            long cookieExpiry = 1800;
-
-            ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, accessToken)
-                    .httpOnly(true)
-                    .secure(false)
-                    .path("/")
-                    .maxAge(cookieExpiry)
-                    .build();
-            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+            // Add the token to the cookie, which expires after 30 minutes
+            AccessTokenCookie.add(response, accessToken);
 
             return new LoginResponseDto(email, accessToken, refreshToken);
         } catch (BadCredentialsException exception) {
             loginAttemptService.addLoginAttempt(email, false);
+            loginThrottle.recordFailure(email, address);
+            throw exception;
+        } catch (InternalAuthenticationServiceException exception) {
+            // The user does not exist, this still counts against the client address
+            loginThrottle.recordFailure(email, address);
             throw exception;
         }
     }
@@ -4,7 +4,9 @@ import com.colak.springtutorial.dto.login.LoginResponseDto;
 import com.colak.springtutorial.dto.refreshtoken.RefreshTokenRequestDTO;
 import com.colak.springtutorial.exception.NotFoundException;
 import com.colak.springtutorial.jpa.RefreshToken;
+import com.colak.springtutorial.jpa.User;
 import com.colak.springtutorial.service.accesstoken.AccessTokenService;
+import com.colak.springtutorial.service.refreshtokenservice.RefreshTokenProperties;
 import com.colak.springtutorial.service.refreshtokenservice.RefreshTokenService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -19,15 +21,23 @@ public class RefreshTokenController {
 
     private final AccessTokenService accessTokenService;
     private final RefreshTokenService refreshTokenService;
+    private final RefreshTokenProperties refreshTokenProperties;
 
     @PostMapping("/refreshToken")
     public LoginResponseDto refreshToken(@RequestBody RefreshTokenRequestDTO refreshTokenRequestDTO) {
+        if (refreshTokenProperties.rotation().enabled()) {
+            RefreshToken rotatedToken = refreshTokenService.rotateRefreshToken(refreshTokenRequestDTO.token());
+            User userInfo = rotatedToken.getUser();
+            String accessToken = accessTokenService.generateAccessToken(userInfo);
+            return new LoginResponseDto(userInfo.getEmail(), accessToken, rotatedToken.getToken());
+        }
+
         return refreshTokenService.findByToken(refreshTokenRequestDTO.token())
                 .map(refreshTokenService::verifyExpiration)
                 .map(RefreshToken::getUser)
                 .map(userInfo -> {
                     String email = userInfo.getEmail();
-                    String accessToken = accessTokenService.generateAccessToken(email);
+                    String accessToken = accessTokenService.generateAccessToken(userInfo);
                     String refreshToken = refreshTokenService.createRefreshToken(email);
                     return new LoginResponseDto(userInfo.getEmail(), accessToken, refreshToken);
 
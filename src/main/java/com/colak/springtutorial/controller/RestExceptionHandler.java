@@ -1,7 +1,11 @@
 package com.colak.springtutorial.controller;
 
+import com.colak.springtutorial.exception.AccessDeniedException;
+import com.colak.springtutorial.exception.BadRequestException;
 import com.colak.springtutorial.exception.DuplicateException;
 import com.colak.springtutorial.exception.NotFoundException;
+import com.colak.springtutorial.exception.RefreshTokenExpiredException;
+import com.colak.springtutorial.exception.TooManyRequestsException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -40,6 +44,13 @@ public class RestExceptionHandler {
         return problemDetail;
     }
 
+    @ExceptionHandler(BadRequestException.class)
+    public ProblemDetail handleBadRequestException(BadRequestException exception) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, exception.getMessage());
+        problemDetail.setTitle("Bad Request");
+        return problemDetail;
+    }
+
     @ExceptionHandler(BadCredentialsException.class)
     public ProblemDetail handleBadCredentialsException(BadCredentialsException exception) {
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.UNAUTHORIZED, exception.getMessage());
@@ -47,6 +58,14 @@ public class RestExceptionHandler {
         return problemDetail;
     }
 
+    // The client has to log in again, like with bad credentials
+    @ExceptionHandler(RefreshTokenExpiredException.class)
+    public ProblemDetail handleRefreshTokenExpiredException(RefreshTokenExpiredException exception) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.UNAUTHORIZED, exception.getMessage());
+        problemDetail.setTitle("Refresh Token Expired");
+        return problemDetail;
+    }
+
     @ExceptionHandler(DuplicateException.class)
     public ProblemDetail handleDuplicateException(DuplicateException exception) {
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, exception.getMessage());
@@ -54,6 +73,20 @@ public class RestExceptionHandler {
         return problemDetail;
     }
 
+    @ExceptionHandler(AccessDeniedException.class)
+    public ProblemDetail handleAccessDeniedException(AccessDeniedException exception) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.FORBIDDEN, exception.getMessage());
+        problemDetail.setTitle("Access Denied");
+        return problemDetail;
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ProblemDetail handleTooManyRequestsException(TooManyRequestsException exception) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, exception.getMessage());
+        problemDetail.setTitle("Too Many Requests");
+        return problemDetail;
+    }
+
     @ExceptionHandler(InternalAuthenticationServiceException.class)
     public ProblemDetail handleInternalAuthenticationServiceException(InternalAuthenticationServiceException exception) {
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.UNAUTHORIZED, exception.getMessage());
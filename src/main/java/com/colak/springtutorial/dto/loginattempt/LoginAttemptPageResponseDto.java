@@ -0,0 +1,12 @@
+package com.colak.springtutorial.dto.loginattempt;
+
+import java.util.List;
+
+/**
+ * @param nextCursor pass as "before" to get the next page, null on the last page
+ */
+public record LoginAttemptPageResponseDto(
+        List<LoginAttemptResponseDto> loginAttempts,
+        String nextCursor) {
+
+}
@@ -5,4 +5,9 @@ public class AccessDeniedException extends RuntimeException {
     public AccessDeniedException(String message) {
         super(message);
     }
+
+    // Without a stack trace and suppressed exceptions, so that an instance can be shared
+    protected AccessDeniedException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
@@ -0,0 +1,31 @@
+package com.colak.springtutorial.exception;
+
+import com.colak.springtutorial.helper.JwtValidationResult;
+import lombok.Getter;
+
+/**
+ * Thrown for a rejected token. It has no stack trace and there is one shared instance per reason,
+ * so a flood of forged tokens does not pay for stack walking
+ */
+@Getter
+public class InvalidTokenException extends AccessDeniedException {
+
+    private static final InvalidTokenException[] INSTANCES = new InvalidTokenException[JwtValidationResult.Reason.values().length];
+
+    static {
+        for (JwtValidationResult.Reason reason : JwtValidationResult.Reason.values()) {
+            INSTANCES[reason.ordinal()] = new InvalidTokenException(reason);
+        }
+    }
+
+    private final JwtValidationResult.Reason reason;
+
+    private InvalidTokenException(JwtValidationResult.Reason reason) {
+        super(reason.getMessage(), false);
+        this.reason = reason;
+    }
+
+    public static InvalidTokenException of(JwtValidationResult.Reason reason) {
+        return INSTANCES[reason.ordinal()];
+    }
+}
@@ -0,0 +1,8 @@
+package com.colak.springtutorial.exception;
+
+public class RefreshTokenExpiredException extends RuntimeException {
+
+    public RefreshTokenExpiredException(String message) {
+        super(message);
+    }
+}
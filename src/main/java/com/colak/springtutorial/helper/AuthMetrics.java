@@ -0,0 +1,32 @@
+package com.colak.springtutorial.helper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Every stage of the authentication pipeline is timed by the one "auth.stage" timer, tagged with the stage and
+ * its outcome. Both tags come from fixed lists, so the number of series never depends on the traffic.
+ * Timers are registered up front and kept in fields, so recording does not look anything up
+ */
+@UtilityClass
+public class AuthMetrics {
+
+    public static final String STAGE_TIMER = "auth.stage";
+
+    public static final String TOKEN_EXTRACTION = "token_extraction";
+    public static final String TOKEN_VERIFICATION = "token_verification";
+    public static final String USER_LOOKUP = "user_lookup";
+    public static final String PASSWORD_CHECK = "password_check";
+    public static final String ACCESS_TOKEN_ISSUE = "access_token_issue";
+    public static final String REFRESH_TOKEN_ISSUE = "refresh_token_issue";
+    public static final String AUDIT_WRITE = "audit_write";
+
+    public static Timer stageTimer(MeterRegistry meterRegistry, String stage, String outcome) {
+        return Timer.builder(STAGE_TIMER)
+                .description("Time spent in a stage of the authentication pipeline")
+                .tag("stage", stage)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
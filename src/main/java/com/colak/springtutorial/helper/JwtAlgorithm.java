@@ -0,0 +1,35 @@
+package com.colak.springtutorial.helper;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The JWS algorithms that tokens can be signed with.
+ * HS256 needs a shared secret, ES256 and EdDSA sign with a private key and can be verified with the published public key
+ */
+@Getter
+@RequiredArgsConstructor
+public enum JwtAlgorithm {
+
+    HS256(Jwts.SIG.HS256, null),
+    ES256(Jwts.SIG.ES256, "EC"),
+    EDDSA(Jwts.SIG.EdDSA, "Ed25519");
+
+    private final SecureDigestAlgorithm<?, ?> algorithm;
+
+    // The java.security.KeyFactory algorithm of the key pair, null for secret keys
+    private final String keyFactoryAlgorithm;
+
+    public boolean isAsymmetric() {
+        return keyFactoryAlgorithm != null;
+    }
+
+    /**
+     * The value of the "alg" header
+     */
+    public String getId() {
+        return algorithm.getId();
+    }
+}
@@ -1,74 +1,147 @@
 package com.colak.springtutorial.helper;
 
-import com.colak.springtutorial.exception.AccessDeniedException;
+import com.colak.springtutorial.exception.InvalidTokenException;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.SignatureException;
-import lombok.experimental.UtilityClass;
-import org.springframework.security.core.userdetails.UserDetails;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SecurityException;
 
-import javax.crypto.SecretKey;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 
-@UtilityClass
+/**
+ * Signs and verifies access tokens with the key ring of its application context. Created by JwtSigningConfig
+ */
 public class JwtHelper {
 
-    private static final SecretKey SECRET_KEY = Jwts.SIG.HS256.key().build();
     private static final int MINUTES = 15;
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
+    // Seconds since the epoch, as in OpenID Connect
+    private static final String AUTH_TIME_CLAIM = "auth_time";
+    // Far above any token we issue, longer input is rejected before it is decoded
+    private static final int MAX_TOKEN_LENGTH = 8192;
 
-    public static String generateAccessToken(String email) {
-        var now = Instant.now();
-        return Jwts.builder()
-                .subject(email)
-                .issuedAt(Date.from(now))
-                .expiration(Date.from(now.plus(MINUTES, ChronoUnit.MINUTES)))
-                .signWith(SECRET_KEY,Jwts.SIG.HS256)
-                .compact();
+    private final JwtKeyRing keyRing;
+
+    public JwtHelper(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
     }
 
-    public static boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+    public String generateAccessToken(String email) {
+        return generateAccessToken(email, null, List.of());
     }
 
     /**
-     * This method takes a JWT token as input and extracts the subject (usually the username) from the token’s claims.
+     * The user id and roles are added as claims, so that the principal can be rebuilt from a verified token
+     * without loading the user from the database. The user is taken to have authenticated now.
      */
-    public static String extractUsername(String token) {
-        Claims claims = extractAllClaims(token);
-        return claims.getSubject();
+    public String generateAccessToken(String email, Long userId, Collection<String> roles) {
+        return generateAccessToken(email, userId, roles, Instant.now());
     }
 
-    public static boolean isTokenExpired(String token) {
-        Date expiration = extractExpiration(token);
-        return expiration.before(new Date());
+    /**
+     * Like {@link #generateAccessToken(String, Long, Collection)}, but keeps the time the user authenticated at,
+     * for a token that renews an earlier one
+     */
+    public String generateAccessToken(String email, Long userId, Collection<String> roles, Instant authTime) {
+        var now = Instant.now();
+        var builder = Jwts.builder()
+                .subject(email);
+        if (userId != null) {
+            builder.claim(USER_ID_CLAIM, userId);
+        }
+        if (!roles.isEmpty()) {
+            builder.claim(ROLES_CLAIM, roles);
+        }
+        builder
+                .claim(AUTH_TIME_CLAIM, authTime.getEpochSecond())
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(MINUTES, ChronoUnit.MINUTES)));
+        return keyRing.sign(builder)
+                .compact();
     }
 
     /**
-     * This method extracts the expiration date from the JWT token’s claims
+     * This method parses the JWT token, checks its signature and expiry exactly once and returns the verified claims.
+     * Callers should keep the returned object instead of parsing the token again.
      */
-    public Date extractExpiration(String token) {
-        Claims claims = extractAllClaims(token);
-        return claims.getExpiration();
+    public VerifiedJwt verify(String token) {
+        return switch (validate(token)) {
+            case JwtValidationResult.Valid valid -> valid.jwt();
+            case JwtValidationResult.Invalid invalid -> throw InvalidTokenException.of(invalid.reason());
+        };
     }
 
     /**
-     * his method parses the JWT token and extracts all of its claims.
-     * It uses the `Jwts` builder to create a parser that is configured with the appropriate signing key and then extracts the token’s claims.
+     * Like {@link #verify(String)}, but a rejected token is returned as a result instead of thrown.
+     * Tokens that can not be a JWS at all are rejected by a scan of their chars, before jjwt and its exceptions are involved
      */
-    private static Claims extractAllClaims(String token) {
+    public JwtValidationResult validate(String token) {
+        if (!isWellFormed(token)) {
+            return JwtValidationResult.Invalid.of(JwtValidationResult.Reason.MALFORMED);
+        }
         try {
-            return Jwts
-                    .parser()
-                    .verifyWith(SECRET_KEY)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-        } catch (SignatureException | ExpiredJwtException e) { // Invalid signature or expired token
-            throw new AccessDeniedException("Access denied: " + e.getMessage());
+            Claims claims = keyRing.parser().parseSignedClaims(token).getPayload();
+            // jjwt only checks exp when it is present, a token without it would never expire
+            if (claims.getExpiration() == null) {
+                return JwtValidationResult.Invalid.of(JwtValidationResult.Reason.MISSING_EXPIRATION);
+            }
+            return new JwtValidationResult.Valid(toVerifiedJwt(claims));
+        } catch (ExpiredJwtException e) {
+            return JwtValidationResult.Invalid.of(JwtValidationResult.Reason.EXPIRED);
+        } catch (SecurityException e) { // Invalid signature or unknown key
+            return JwtValidationResult.Invalid.of(JwtValidationResult.Reason.INVALID_SIGNATURE);
+        } catch (UnsupportedJwtException e) {
+            return JwtValidationResult.Invalid.of(JwtValidationResult.Reason.UNSUPPORTED);
+        } catch (JwtException e) {
+            return JwtValidationResult.Invalid.of(JwtValidationResult.Reason.MALFORMED);
+        }
+    }
+
+    /**
+     * A signed JWT is three non-empty Base64URL parts separated by dots
+     */
+    private static boolean isWellFormed(String token) {
+        int length = token == null ? 0 : token.length();
+        if (length == 0 || length > MAX_TOKEN_LENGTH) {
+            return false;
         }
+        int dots = 0;
+        char previous = '.';
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (previous == '.' || ++dots > 2) {
+                    return false;
+                }
+            } else if (!isBase64Url(c)) {
+                return false;
+            }
+            previous = c;
+        }
+        return dots == 2 && previous != '.';
+    }
+
+    private static boolean isBase64Url(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+    }
+
+    private static VerifiedJwt toVerifiedJwt(Claims claims) {
+        Date issuedAt = claims.getIssuedAt();
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        Long authTime = claims.get(AUTH_TIME_CLAIM, Long.class);
+        return new VerifiedJwt(
+                claims.getSubject(),
+                claims.get(USER_ID_CLAIM, Long.class),
+                issuedAt == null ? null : issuedAt.toInstant(),
+                claims.getExpiration().toInstant(),
+                authTime == null ? null : Instant.ofEpochSecond(authTime),
+                roles == null ? List.of() : roles.stream().map(String::valueOf).toList());
     }
 }
@@ -0,0 +1,14 @@
+package com.colak.springtutorial.helper;
+
+import java.security.Key;
+
+/**
+ * A key of the {@link JwtKeyRing}. The signing key is null for a key that is only kept to verify tokens
+ * that were signed before it was rotated out
+ */
+public record JwtKey(String id, JwtAlgorithm algorithm, Key signingKey, Key verificationKey) {
+
+    public boolean canSign() {
+        return signingKey != null;
+    }
+}
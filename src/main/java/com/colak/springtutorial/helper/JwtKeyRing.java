@@ -0,0 +1,168 @@
+package com.colak.springtutorial.helper;
+
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import io.jsonwebtoken.security.SignatureException;
+
+import javax.crypto.SecretKey;
+import java.math.BigInteger;
+import java.security.Key;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The keys that tokens are signed and verified with. New tokens are signed with the active key and carry its id in
+ * the "kid" header. Tokens are verified with the key named by their "kid", so a rotated key keeps verifying the tokens
+ * it signed until they expire.
+ * Keys are parsed once when the ring is built, and the ring is immutable, so it is shared by all requests
+ */
+public final class JwtKeyRing {
+
+    private static final int P256_COORDINATE_LENGTH = 32;
+    private static final int ED25519_KEY_LENGTH = 32;
+
+    private final JwtKey activeKey;
+    private final Map<String, JwtKey> keys;
+    private final JwtParser parser;
+    private final Map<String, Object> jwks;
+
+    /**
+     * @param activeKeyId the id of the key that signs new tokens, or null to use the first key that can sign
+     */
+    public JwtKeyRing(String activeKeyId, Collection<JwtKey> keys) {
+        Map<String, JwtKey> keysById = new LinkedHashMap<>();
+        for (JwtKey key : keys) {
+            if (keysById.putIfAbsent(key.id(), key) != null) {
+                throw new IllegalStateException("Duplicate JWT key id: " + key.id());
+            }
+        }
+        JwtKey active = activeKeyId == null
+                ? keysById.values().stream().filter(JwtKey::canSign).findFirst().orElse(null)
+                : keysById.get(activeKeyId);
+        if (active == null || !active.canSign()) {
+            throw new IllegalStateException("No JWT signing key found, active key id: " + activeKeyId);
+        }
+        this.activeKey = active;
+        this.keys = Collections.unmodifiableMap(keysById);
+        this.parser = Jwts.parser()
+                .keyLocator(this::locate)
+                .build();
+        this.jwks = Map.of("keys", toPublicJwks(keysById.values()));
+    }
+
+    /**
+     * A ring with a random HS256 key. Tokens signed with it do not survive a restart and can not be verified by other
+     * nodes, so it is only meant for development and tests
+     */
+    public static JwtKeyRing ephemeral() {
+        SecretKey secretKey = Jwts.SIG.HS256.key().build();
+        return new JwtKeyRing(null, List.of(new JwtKey("ephemeral-" + UUID.randomUUID(), JwtAlgorithm.HS256, secretKey, secretKey)));
+    }
+
+    public String activeKeyId() {
+        return activeKey.id();
+    }
+
+    /**
+     * Sets the "kid" header and signs the token with the active key
+     */
+    @SuppressWarnings("unchecked")
+    public JwtBuilder sign(JwtBuilder builder) {
+        SecureDigestAlgorithm<Key, ?> algorithm = (SecureDigestAlgorithm<Key, ?>) activeKey.algorithm().getAlgorithm();
+        return builder
+                .header().keyId(activeKey.id()).and()
+                .signWith(activeKey.signingKey(), algorithm);
+    }
+
+    /**
+     * The parser is immutable and thread-safe, so it is built once and shared by all requests
+     */
+    public JwtParser parser() {
+        return parser;
+    }
+
+    /**
+     * The public keys as a JSON Web Key Set (RFC 7517). Secret keys are never published
+     */
+    public Map<String, Object> jwks() {
+        return jwks;
+    }
+
+    private Key locate(Header header) {
+        if (!(header instanceof JwsHeader jwsHeader)) {
+            throw new SignatureException("Token is not signed");
+        }
+        String keyId = jwsHeader.getKeyId();
+        JwtKey key = keyId == null ? activeKey : keys.get(keyId);
+        if (key == null) {
+            throw new SignatureException("Unknown key id: " + keyId);
+        }
+        // The algorithm is pinned by the key, so a token can not choose how its own signature is checked
+        if (!key.algorithm().getId().equals(jwsHeader.getAlgorithm())) {
+            throw new SignatureException("Unexpected algorithm %s for key id: %s".formatted(jwsHeader.getAlgorithm(), keyId));
+        }
+        return key.verificationKey();
+    }
+
+    private static List<Map<String, Object>> toPublicJwks(Collection<JwtKey> keys) {
+        List<Map<String, Object>> publicJwks = new ArrayList<>();
+        for (JwtKey key : keys) {
+            if (key.algorithm().isAsymmetric()) {
+                publicJwks.add(toPublicJwk(key));
+            }
+        }
+        return List.copyOf(publicJwks);
+    }
+
+    private static Map<String, Object> toPublicJwk(JwtKey key) {
+        PublicKey publicKey = (PublicKey) key.verificationKey();
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        switch (key.algorithm()) {
+            case ES256 -> {
+                ECPublicKey ecPublicKey = (ECPublicKey) publicKey;
+                jwk.put("kty", "EC");
+                jwk.put("crv", "P-256");
+                jwk.put("x", base64Url(unsigned(ecPublicKey.getW().getAffineX())));
+                jwk.put("y", base64Url(unsigned(ecPublicKey.getW().getAffineY())));
+            }
+            case EDDSA -> {
+                // The X.509 encoding of an Ed25519 key ends with the raw 32 byte public key
+                byte[] encoded = publicKey.getEncoded();
+                jwk.put("kty", "OKP");
+                jwk.put("crv", "Ed25519");
+                jwk.put("x", base64Url(Arrays.copyOfRange(encoded, encoded.length - ED25519_KEY_LENGTH, encoded.length)));
+            }
+            default -> throw new IllegalStateException("Not a public key algorithm: " + key.algorithm());
+        }
+        jwk.put("kid", key.id());
+        jwk.put("use", "sig");
+        jwk.put("alg", key.algorithm().getId());
+        return Collections.unmodifiableMap(jwk);
+    }
+
+    // BigInteger.toByteArray() is signed and of variable length, a JWK coordinate is unsigned and of fixed length
+    private static byte[] unsigned(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] coordinate = new byte[P256_COORDINATE_LENGTH];
+        int length = Math.min(bytes.length, P256_COORDINATE_LENGTH);
+        System.arraycopy(bytes, bytes.length - length, coordinate, P256_COORDINATE_LENGTH - length, length);
+        return coordinate;
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
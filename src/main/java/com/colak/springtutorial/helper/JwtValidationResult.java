@@ -0,0 +1,44 @@
+package com.colak.springtutorial.helper;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The outcome of {@link JwtHelper#validate(String)}. A rejected token is a value, not an exception,
+ * so callers decide for themselves what a rejection costs
+ */
+public sealed interface JwtValidationResult {
+
+    record Valid(VerifiedJwt jwt) implements JwtValidationResult {
+    }
+
+    /**
+     * There is one instance per reason, so a rejection allocates nothing
+     */
+    record Invalid(Reason reason) implements JwtValidationResult {
+
+        private static final Invalid[] INSTANCES = new Invalid[Reason.values().length];
+
+        static {
+            for (Reason reason : Reason.values()) {
+                INSTANCES[reason.ordinal()] = new Invalid(reason);
+            }
+        }
+
+        public static Invalid of(Reason reason) {
+            return INSTANCES[reason.ordinal()];
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    enum Reason {
+        MALFORMED("Access denied: Token is malformed."),
+        INVALID_SIGNATURE("Access denied: Token signature is invalid."),
+        EXPIRED("Access denied: Token is expired."),
+        MISSING_EXPIRATION("Access denied: Token has no expiry."),
+        UNSUPPORTED("Access denied: Token type is not supported.");
+
+        private final String message;
+    }
+}
@@ -0,0 +1,53 @@
+package com.colak.springtutorial.helper;
+
+import lombok.experimental.UtilityClass;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+
+@UtilityClass
+public class PemKeys {
+
+    private static final String PRIVATE_KEY_TYPE = "PRIVATE KEY";
+    private static final String PUBLIC_KEY_TYPE = "PUBLIC KEY";
+
+    /**
+     * Parses an unencrypted PKCS#8 private key, e.g. the output of "openssl pkcs8 -topk8 -nocrypt"
+     */
+    public static PrivateKey privateKey(String pem, String keyFactoryAlgorithm) {
+        try {
+            byte[] der = decode(pem, PRIVATE_KEY_TYPE);
+            return KeyFactory.getInstance(keyFactoryAlgorithm).generatePrivate(new PKCS8EncodedKeySpec(der));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid %s private key".formatted(keyFactoryAlgorithm), e);
+        }
+    }
+
+    /**
+     * Parses an X.509 SubjectPublicKeyInfo public key, e.g. the output of "openssl pkey -pubout"
+     */
+    public static PublicKey publicKey(String pem, String keyFactoryAlgorithm) {
+        try {
+            byte[] der = decode(pem, PUBLIC_KEY_TYPE);
+            return KeyFactory.getInstance(keyFactoryAlgorithm).generatePublic(new X509EncodedKeySpec(der));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid %s public key".formatted(keyFactoryAlgorithm), e);
+        }
+    }
+
+    private static byte[] decode(String pem, String type) {
+        String begin = "-----BEGIN " + type + "-----";
+        String end = "-----END " + type + "-----";
+        int start = pem.indexOf(begin);
+        int stop = pem.indexOf(end);
+        if (start < 0 || stop < start) {
+            throw new IllegalStateException("PEM does not contain a " + type);
+        }
+        return Base64.getMimeDecoder().decode(pem.substring(start + begin.length(), stop));
+    }
+}
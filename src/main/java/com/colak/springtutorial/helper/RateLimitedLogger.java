@@ -0,0 +1,47 @@
+package com.colak.springtutorial.helper;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes at most a number of messages per interval to the logger and drops the rest.
+ * The number of dropped messages is logged once the next interval starts, so a flood of bad requests is still
+ * visible without turning every request into log I/O
+ */
+public class RateLimitedLogger {
+
+    private final Logger logger;
+    private final int messagesPerInterval;
+    private final long intervalNanos;
+
+    private final AtomicLong intervalStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger messageCount = new AtomicInteger();
+
+    public RateLimitedLogger(Logger logger, int messagesPerInterval, Duration interval) {
+        this.logger = logger;
+        this.messagesPerInterval = messagesPerInterval;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    public void warn(String format, Object argument1, Object argument2) {
+        if (logger.isWarnEnabled() && tryAcquire()) {
+            logger.warn(format, argument1, argument2);
+        }
+    }
+
+    private boolean tryAcquire() {
+        long now = System.nanoTime();
+        long start = intervalStart.get();
+        if (now - start >= intervalNanos && intervalStart.compareAndSet(start, now)) {
+            // Only the thread that starts the new interval reports the old one
+            int previousCount = messageCount.getAndSet(0);
+            if (previousCount > messagesPerInterval) {
+                logger.warn("{} similar messages were suppressed", previousCount - messagesPerInterval);
+            }
+        }
+        return messageCount.incrementAndGet() <= messagesPerInterval;
+    }
+}
@@ -0,0 +1,26 @@
+package com.colak.springtutorial.helper;
+
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+@UtilityClass
+public class TokenDigest {
+
+    /**
+     * Returns the SHA-256 digest of the token, so that raw tokens are never kept as keys or written anywhere
+     */
+    public static String sha256(String token) {
+        try {
+            // MessageDigest is not thread-safe, a new instance is cheap compared to the parsing it saves
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] digest = messageDigest.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
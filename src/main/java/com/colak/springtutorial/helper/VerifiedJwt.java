@@ -0,0 +1,23 @@
+package com.colak.springtutorial.helper;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The claims of a token whose signature and expiry have already been verified by {@link JwtHelper#verify(String)}.
+ * It is created once per request and handed to every consumer, so the token is never parsed twice.
+ * The authTime is when the user logged in with a password, renewed tokens keep it. It is null for tokens without
+ * the auth_time claim
+ */
+public record VerifiedJwt(
+        String subject,
+        Long userId,
+        Instant issuedAt,
+        Instant expiration,
+        Instant authTime,
+        List<String> roles) {
+
+    public boolean isExpired(Instant now) {
+        return expiration.isBefore(now);
+    }
+}
@@ -0,0 +1,78 @@
+package com.colak.springtutorial.jfr;
+
+import com.colak.springtutorial.helper.TokenDigest;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Emitted by JwtAuthFilter for every request that is not public. The event spans extraction and authentication,
+ * not the rest of the request, so it lines up with GC pauses, connection pool waits and hashing threads in the same
+ * recording. The token is only recorded as its SHA-256 digest
+ */
+@Name(AuthenticationEvent.NAME)
+@Label("Authentication")
+@Category({"Spring Tutorial", "Security"})
+@Description("Extraction and authentication of the token of a request")
+@StackTrace(false)
+public class AuthenticationEvent extends Event {
+
+    public static final String NAME = "com.colak.springtutorial.Authentication";
+
+    public static final String AUTHENTICATED = "authenticated";
+    public static final String ABSENT = "absent";
+    public static final String REJECTED = "rejected";
+    public static final String FAILED = "failed";
+
+    @Label("Request URI")
+    String requestUri;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Reason")
+    @Description("Why the token was rejected")
+    String reason;
+
+    @Label("Token Hash")
+    @Description("Base64url SHA-256 digest of the token")
+    String tokenHash;
+
+    @Label("Extraction Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long extractionDuration;
+
+    @Label("Authentication Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long authenticationDuration;
+
+    // Transient fields are not recorded
+    private transient boolean completed;
+
+    /**
+     * Ends the event and commits it if it is enabled and over its threshold. Nothing is hashed otherwise.
+     * Only the first call counts
+     */
+    public void complete(String requestUri, String outcome, String reason, String token,
+                         long extractionDuration, long authenticationDuration) {
+        if (completed) {
+            return;
+        }
+        completed = true;
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.requestUri = requestUri;
+        this.outcome = outcome;
+        this.reason = reason;
+        this.tokenHash = token == null ? null : TokenDigest.sha256(token);
+        this.extractionDuration = extractionDuration;
+        this.authenticationDuration = authenticationDuration;
+        commit();
+    }
+}
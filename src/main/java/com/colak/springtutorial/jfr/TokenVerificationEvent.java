@@ -0,0 +1,77 @@
+package com.colak.springtutorial.jfr;
+
+import com.colak.springtutorial.helper.TokenDigest;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Emitted by JwtAuthenticationProvider when a token is verified, which is every request unless the authentication
+ * cache already knows the token. The token is only recorded as its SHA-256 digest
+ */
+@Name(TokenVerificationEvent.NAME)
+@Label("Token Verification")
+@Category({"Spring Tutorial", "Security"})
+@Description("Signature and expiry check of a token and the lookup of its user")
+@StackTrace(false)
+public class TokenVerificationEvent extends Event {
+
+    public static final String NAME = "com.colak.springtutorial.TokenVerification";
+
+    public static final String VALID = "valid";
+    public static final String REJECTED = "rejected";
+    public static final String FAILED = "failed";
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Reason")
+    @Description("Why the token was rejected")
+    String reason;
+
+    @Label("Token Hash")
+    @Description("Base64url SHA-256 digest of the token")
+    String tokenHash;
+
+    @Label("Strict")
+    @Description("Whether the user was loaded from the database instead of the claims")
+    boolean strict;
+
+    @Label("Verification Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long verificationDuration;
+
+    @Label("User Lookup Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long userLookupDuration;
+
+    // Transient fields are not recorded
+    private transient boolean completed;
+
+    /**
+     * Ends the event and commits it if it is enabled and over its threshold. Nothing is hashed otherwise.
+     * Only the first call counts
+     */
+    public void complete(String outcome, String reason, String token, boolean strict,
+                         long verificationDuration, long userLookupDuration) {
+        if (completed) {
+            return;
+        }
+        completed = true;
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.outcome = outcome;
+        this.reason = reason;
+        this.tokenHash = TokenDigest.sha256(token);
+        this.strict = strict;
+        this.verificationDuration = verificationDuration;
+        this.userLookupDuration = userLookupDuration;
+        commit();
+    }
+}
@@ -8,7 +8,8 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "login_attempts")
+@Table(name = "login_attempts", indexes = @Index(
+        name = "ix_login_attempts_email_created_at", columnList = "email, created_at DESC, id DESC, success"))
 
 @Getter
 @Setter
@@ -16,7 +17,8 @@ import java.time.LocalDateTime;
 public class LoginAttempt {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "login_attempts_seq")
+    @SequenceGenerator(name = "login_attempts_seq", sequenceName = "login_attempts_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "email", nullable = false, length = 100)
@@ -0,0 +1,34 @@
+package com.colak.springtutorial.jpa;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A refresh token value that has been replaced by a rotation. Only the digest of the token is kept
+ */
+@Entity
+@Table(name = "retired_refresh_tokens", indexes = @Index(
+        name = "ix_retired_refresh_tokens_expiry_date", columnList = "expiry_date"))
+
+@Getter
+@NoArgsConstructor
+public class RetiredRefreshToken {
+
+    @Id
+    @Column(name = "token_hash", length = 64)
+    private String tokenHash;
+
+    // The row of the session, which keeps its id across rotations
+    @Column(name = "refresh_token_id", nullable = false)
+    private Long refreshTokenId;
+
+    @Column(name = "expiry_date", nullable = false)
+    private Instant expiryDate;
+}
@@ -1,13 +1,30 @@
 package com.colak.springtutorial.repository;
 
 import com.colak.springtutorial.jpa.LoginAttempt;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface LoginAttemptRepository extends JpaRepository<LoginAttempt, Long> {
 
     // Custom method to find the most recent login attempts by email, sorted by createdAt
-    List<LoginAttempt> findTop5ByEmailOrderByCreatedAtDesc(String email);
-}
+    List<LoginAttempt> findByEmailOrderByCreatedAtDesc(String email, Limit limit);
+
+    // The first page of the keyset pagination. The id orders attempts that share a createdAt
+    List<LoginAttempt> findByEmailOrderByCreatedAtDescIdDesc(String email, Limit limit);
 
+    // The next page after an attempt that had not been written yet, so there is no id to break ties with
+    List<LoginAttempt> findByEmailAndCreatedAtBeforeOrderByCreatedAtDescIdDesc(String email, LocalDateTime createdAt,
+                                                                                Limit limit);
+
+    // Keyset pagination: the next page starts below the (createdAt, id) of the last attempt of the previous page
+    @Query("SELECT a FROM LoginAttempt a WHERE a.email = :email "
+            + "AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) "
+            + "ORDER BY a.createdAt DESC, a.id DESC")
+    List<LoginAttempt> findPageBefore(@Param("email") String email, @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id, Limit limit);
+}
@@ -1,11 +1,44 @@
 package com.colak.springtutorial.repository;
 
 import com.colak.springtutorial.jpa.RefreshToken;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface RefreshTokenRepository extends CrudRepository<RefreshToken, Long> {
 
+    // The user and its roles are needed to issue the new access token outside of this transaction
+    @EntityGraph(attributePaths = {"user", "user.authorities"})
     Optional<RefreshToken> findByToken(String token);
+
+    // Swaps the token in place. Updates nothing if another request has rotated the row since it was read
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.token = :newToken, t.expiryDate = :expiryDate, t.version = t.version + 1 "
+            + "WHERE t.id = :id AND t.version = :version")
+    int rotate(@Param("id") Long id, @Param("version") Long version,
+               @Param("newToken") String newToken, @Param("expiryDate") Instant expiryDate);
+
+    // The ids are selected before they are deleted, because a LIMIT in a subquery of a DELETE is not portable
+    @Query("SELECT t.id FROM RefreshToken t WHERE t.expiryDate < :now")
+    List<Long> findExpiredIds(@Param("now") Instant now, Limit limit);
+
+    // Bulk delete in its own short transaction. A token that has been rotated since its id was selected is no longer
+    // expired and is kept. The retired tokens of a deleted session are deleted by the database (ON DELETE CASCADE)
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.id IN :ids AND t.expiryDate < :now")
+    int deleteExpired(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    @Query("SELECT MIN(t.expiryDate) FROM RefreshToken t WHERE t.expiryDate < :now")
+    Optional<Instant> findOldestExpiryDateBefore(@Param("now") Instant now);
 }
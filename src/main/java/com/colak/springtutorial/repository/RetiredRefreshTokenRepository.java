@@ -0,0 +1,32 @@
+package com.colak.springtutorial.repository;
+
+import com.colak.springtutorial.jpa.RetiredRefreshToken;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface RetiredRefreshTokenRepository extends JpaRepository<RetiredRefreshToken, String> {
+
+    // A plain insert, save() would first select the row because the id is assigned
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO retired_refresh_tokens (token_hash, refresh_token_id, expiry_date) "
+            + "VALUES (:tokenHash, :refreshTokenId, :expiryDate)", nativeQuery = true)
+    void retire(@Param("tokenHash") String tokenHash, @Param("refreshTokenId") Long refreshTokenId,
+                @Param("expiryDate") Instant expiryDate);
+
+    @Query("SELECT t.refreshTokenId FROM RetiredRefreshToken t WHERE t.tokenHash = :tokenHash")
+    Optional<Long> findRefreshTokenIdByTokenHash(@Param("tokenHash") String tokenHash);
+
+    // The ids are selected and then deleted with deleteAllByIdInBatch, because a LIMIT in a subquery of a DELETE
+    // is not portable. Retired tokens never change, so there is no race between the two
+    @Query("SELECT t.tokenHash FROM RetiredRefreshToken t WHERE t.expiryDate < :now")
+    List<String> findExpiredTokenHashes(@Param("now") Instant now, Limit limit);
+}
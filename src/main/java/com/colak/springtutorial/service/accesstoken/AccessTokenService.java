@@ -1,12 +1,48 @@
 package com.colak.springtutorial.service.accesstoken;
 
+import com.colak.springtutorial.helper.AuthMetrics;
 import com.colak.springtutorial.helper.JwtHelper;
+import com.colak.springtutorial.jpa.User;
+import com.colak.springtutorial.service.userdetails.AuthenticatedUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
 @Service
 public class AccessTokenService {
 
-    public String generateAccessToken (String email) {
-        return JwtHelper.generateAccessToken(email);
+    private final JwtHelper jwtHelper;
+    private final Timer issueTimer;
+
+    public AccessTokenService(JwtHelper jwtHelper, MeterRegistry meterRegistry) {
+        this.jwtHelper = jwtHelper;
+        this.issueTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.ACCESS_TOKEN_ISSUE, "issued");
+    }
+
+    public String generateAccessToken(AuthenticatedUser user) {
+        return issueTimer.record(() -> jwtHelper.generateAccessToken(user.getUsername(), user.getId(), toRoles(user.getAuthorities())));
+    }
+
+    /**
+     * Issues a token for a user that is still authenticated by an earlier token, with the authTime of that token
+     */
+    public String renewAccessToken(AuthenticatedUser user, Instant authTime) {
+        return issueTimer.record(() -> jwtHelper.generateAccessToken(user.getUsername(), user.getId(), toRoles(user.getAuthorities()),
+                authTime));
+    }
+
+    public String generateAccessToken(User user) {
+        return issueTimer.record(() -> jwtHelper.generateAccessToken(user.getEmail(), user.getId(), toRoles(user.getAuthorities())));
+    }
+
+    private static List<String> toRoles(Collection<? extends GrantedAuthority> authorities) {
+        return authorities.stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
     }
 }
@@ -0,0 +1,60 @@
+package com.colak.springtutorial.service.loginattempt;
+
+import com.colak.springtutorial.exception.BadRequestException;
+import com.colak.springtutorial.jpa.LoginAttempt;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+
+/**
+ * The position of the last attempt of a page. The id breaks ties between attempts with the same createdAt,
+ * which are common because attempts are written in batches.
+ * The id is null when the attempt was still waiting to be written. The next page then starts below its createdAt,
+ * which skips another attempt of the same user with exactly that createdAt
+ */
+public record LoginAttemptCursor(LocalDateTime createdAt, Long id) {
+
+    /**
+     * Newest first. An attempt that has not been written yet has no id and comes before written ones with the same createdAt
+     */
+    public static final Comparator<LoginAttempt> NEWEST_FIRST = Comparator.comparing(LoginAttempt::getCreatedAt)
+            .thenComparing(LoginAttempt::getId, Comparator.nullsLast(Comparator.naturalOrder()))
+            .reversed();
+
+    private static final char SEPARATOR = '_';
+
+    public static LoginAttemptCursor of(LoginAttempt loginAttempt) {
+        return new LoginAttemptCursor(loginAttempt.getCreatedAt(), loginAttempt.getId());
+    }
+
+    /**
+     * Whether the attempt belongs to a page after this position
+     */
+    public boolean precedes(LoginAttempt loginAttempt) {
+        int order = loginAttempt.getCreatedAt().compareTo(createdAt);
+        return order < 0 || (order == 0 && id != null && loginAttempt.getId() != null && loginAttempt.getId() < id);
+    }
+
+    /**
+     * @throws BadRequestException if the value was not created by {@link #format()}
+     */
+    public static LoginAttemptCursor parse(String value) {
+        int separator = value.lastIndexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new BadRequestException("Invalid cursor: " + value);
+        }
+        try {
+            String id = value.substring(separator + 1);
+            return new LoginAttemptCursor(
+                    LocalDateTime.parse(value.substring(0, separator)),
+                    id.isEmpty() ? null : Long.parseLong(id));
+        } catch (DateTimeParseException | NumberFormatException exception) {
+            throw new BadRequestException("Invalid cursor: " + value);
+        }
+    }
+
+    public String format() {
+        return createdAt.toString() + SEPARATOR + (id == null ? "" : id.toString());
+    }
+}
@@ -0,0 +1,11 @@
+package com.colak.springtutorial.service.loginattempt;
+
+import com.colak.springtutorial.jpa.LoginAttempt;
+
+import java.util.List;
+
+/**
+ * @param nextCursor the position to continue from, null on the last page
+ */
+public record LoginAttemptPage(List<LoginAttempt> loginAttempts, LoginAttemptCursor nextCursor) {
+}
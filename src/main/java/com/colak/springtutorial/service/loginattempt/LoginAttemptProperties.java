@@ -0,0 +1,47 @@
+package com.colak.springtutorial.service.loginattempt;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "login-attempt")
+public record LoginAttemptProperties(
+        @DefaultValue WriteBehind writeBehind,
+        @DefaultValue Throttle throttle,
+        @DefaultValue Recent recent) {
+
+    /**
+     * Queued attempts are written when batchSize attempts are waiting or flushInterval has elapsed.
+     * When the queue is full a login waits at most enqueueTimeout before its attempt is dropped
+     */
+    public record WriteBehind(
+            @DefaultValue("10000") int queueCapacity,
+            @DefaultValue("100") int batchSize,
+            @DefaultValue("1s") Duration flushInterval,
+            @DefaultValue("10ms") Duration enqueueTimeout) {
+    }
+
+    /**
+     * Failed logins are counted exactly per email and per client address over the sliding window.
+     * Memory is bounded by maximumKeys rings of buckets counters per key type, no matter how many distinct keys are seen
+     */
+    public record Throttle(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("5m") Duration window,
+            @DefaultValue("10") int buckets,
+            @DefaultValue("100000") long maximumKeys,
+            @DefaultValue("5") int maxFailuresPerEmail,
+            @DefaultValue("50") int maxFailuresPerAddress) {
+    }
+
+    /**
+     * Number of recent attempts kept in memory per user, for at most maximumUsers users.
+     * A list is reloaded expireAfterWrite after it was loaded, which bounds how stale it is on multiple instances
+     */
+    public record Recent(
+            @DefaultValue("5") int size,
+            @DefaultValue("100000") long maximumUsers,
+            @DefaultValue("1m") Duration expireAfterWrite) {
+    }
+}
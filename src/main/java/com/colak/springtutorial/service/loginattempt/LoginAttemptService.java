@@ -1,27 +1,111 @@
 package com.colak.springtutorial.service.loginattempt;
 
+import com.colak.springtutorial.helper.AuthMetrics;
 import com.colak.springtutorial.jpa.LoginAttempt;
 import com.colak.springtutorial.repository.LoginAttemptRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Service
-@RequiredArgsConstructor
 public class LoginAttemptService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final LoginAttemptRepository repository;
+    private final LoginAttemptWriter loginAttemptWriter;
+    private final RecentLoginAttempts recentLoginAttempts;
+
+    // Only the time a login waits for the queue, the database write is timed by LoginAttemptWriter
+    private final Timer queuedTimer;
+    private final Timer droppedTimer;
 
-    @Transactional
+    public LoginAttemptService(LoginAttemptRepository repository, LoginAttemptWriter loginAttemptWriter,
+                               RecentLoginAttempts recentLoginAttempts, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.loginAttemptWriter = loginAttemptWriter;
+        this.recentLoginAttempts = recentLoginAttempts;
+        this.queuedTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.AUDIT_WRITE, "queued");
+        this.droppedTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.AUDIT_WRITE, "dropped");
+    }
+
+    // The attempt is written asynchronously by LoginAttemptWriter
     public void addLoginAttempt(String email, boolean success) {
         LoginAttempt loginAttempt = new LoginAttempt(email, success, LocalDateTime.now());
-        repository.save(loginAttempt);
+        long start = System.nanoTime();
+        boolean queued = loginAttemptWriter.enqueue(loginAttempt);
+        (queued ? queuedTimer : droppedTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        // Update the in-memory view only after queueing. A cold load that starts from now on finds the attempt in the
+        // queue or in the database, and one that started earlier is still running and is waited for by add()
+        recentLoginAttempts.add(loginAttempt);
     }
 
+    // Served from memory, the database is only read on a cold miss
     public List<LoginAttempt> findRecentLoginAttempts(String email) {
-        return repository.findTop5ByEmailOrderByCreatedAtDesc(email);
+        return recentLoginAttempts.get(email, this::loadRecentLoginAttempts);
+    }
+
+    /**
+     * Returns up to size attempts after the cursor, newest first. A null cursor starts with the newest attempt.
+     * The size is clamped to 1..MAX_PAGE_SIZE. Attempts that are still queued are included, so that a user always
+     * sees their own latest login
+     */
+    public LoginAttemptPage findLoginAttempts(String email, LoginAttemptCursor before, int size) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        List<LoginAttempt> pending = loginAttemptWriter.pending(email);
+        Limit limit = Limit.of(pageSize);
+        List<LoginAttempt> stored;
+        if (before == null) {
+            stored = repository.findByEmailOrderByCreatedAtDescIdDesc(email, limit);
+        } else if (before.id() == null) {
+            stored = repository.findByEmailAndCreatedAtBeforeOrderByCreatedAtDescIdDesc(email, before.createdAt(), limit);
+        } else {
+            stored = repository.findPageBefore(email, before.createdAt(), before.id(), limit);
+        }
+        if (before != null) {
+            pending.removeIf(loginAttempt -> !before.precedes(loginAttempt));
+        }
+        List<LoginAttempt> loginAttempts = newestFirst(pending, stored, pageSize);
+        // A full page may be followed by another one
+        LoginAttemptCursor nextCursor = loginAttempts.size() < pageSize ? null : LoginAttemptCursor.of(loginAttempts.getLast());
+        return new LoginAttemptPage(loginAttempts, nextCursor);
+    }
+
+    // Runs inside the cache's compute, so it only reads and never waits for the writer
+    private List<LoginAttempt> loadRecentLoginAttempts(String email) {
+        List<LoginAttempt> pending = loginAttemptWriter.pending(email);
+        int size = recentLoginAttempts.size();
+        List<LoginAttempt> stored = repository.findByEmailOrderByCreatedAtDesc(email, Limit.of(size));
+        return List.copyOf(newestFirst(pending, stored, size));
+    }
+
+    /**
+     * Merges the attempts that were pending before the database was read into the stored ones.
+     * A pending attempt that was written in the meantime is also stored, and only the stored copy is kept
+     */
+    private static List<LoginAttempt> newestFirst(List<LoginAttempt> pending, List<LoginAttempt> stored, int limit) {
+        if (pending.isEmpty()) {
+            return stored;
+        }
+        Set<Long> storedIds = new HashSet<>();
+        for (LoginAttempt loginAttempt : stored) {
+            storedIds.add(loginAttempt.getId());
+        }
+        List<LoginAttempt> merged = new ArrayList<>(stored);
+        for (LoginAttempt loginAttempt : pending) {
+            if (!storedIds.contains(loginAttempt.getId())) {
+                merged.add(loginAttempt);
+            }
+        }
+        merged.sort(LoginAttemptCursor.NEWEST_FIRST);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
     }
 }
@@ -0,0 +1,201 @@
+package com.colak.springtutorial.service.loginattempt;
+
+import com.colak.springtutorial.jpa.LoginAttempt;
+import com.colak.springtutorial.repository.LoginAttemptRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind pipeline for login attempts. Attempts are put on a bounded queue by the request thread and
+ * written in batches by a background thread, so that a login never waits for the audit table.
+ * Readers merge the attempts that are not written yet into what they read, see {@link #pending(String)}.
+ * The queue is flushed when the application shuts down.
+ */
+@Slf4j
+@Component
+public class LoginAttemptWriter implements SmartLifecycle {
+
+    private final LoginAttemptRepository repository;
+    private final LoginAttemptProperties.WriteBehind properties;
+    private final BlockingQueue<LoginAttempt> queue;
+    // Not synchronized, so that a virtual thread waiting for a flush does not pin its carrier thread
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Guards moving a batch from the queue to writing, so that pending() never sees an attempt in neither
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    // The batch that is being written, guarded by pendingLock
+    private List<LoginAttempt> writing = List.of();
+
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+    private final Counter writtenCounter;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+    private volatile Thread writerThread;
+
+    public LoginAttemptWriter(LoginAttemptRepository repository, LoginAttemptProperties loginAttemptProperties, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = loginAttemptProperties.writeBehind();
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+
+        Gauge.builder("login.attempts.queue.size", queue, BlockingQueue::size)
+                .description("Login attempts waiting to be written")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("login.attempts.dropped")
+                .description("Login attempts dropped because the queue was full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("login.attempts.failed")
+                .description("Login attempts lost because their batch could not be written")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("login.attempts.written")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("login.attempts.flush")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the attempt. If the queue stays full for longer than the enqueue timeout the attempt is dropped
+     *
+     * @return false if the attempt was dropped
+     */
+    public boolean enqueue(LoginAttempt loginAttempt) {
+        boolean queued;
+        try {
+            queued = queue.offer(loginAttempt, properties.enqueueTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            droppedCounter.increment();
+            return false;
+        }
+        // Wake up the writer as soon as a full batch is waiting
+        Thread thread = writerThread;
+        if (thread != null && queue.size() >= properties.batchSize()) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the attempts of the user that are queued or being written, oldest first.
+     * Call it before reading the database: an attempt that is written in between is then returned by both,
+     * which the caller has to tolerate, but never by neither
+     */
+    public List<LoginAttempt> pending(String email) {
+        List<LoginAttempt> pending = new ArrayList<>();
+        pendingLock.lock();
+        try {
+            for (LoginAttempt loginAttempt : writing) {
+                if (loginAttempt.getEmail().equals(email)) {
+                    pending.add(loginAttempt);
+                }
+            }
+            for (LoginAttempt loginAttempt : queue) {
+                if (loginAttempt.getEmail().equals(email)) {
+                    pending.add(loginAttempt);
+                }
+            }
+        } finally {
+            pendingLock.unlock();
+        }
+        return pending;
+    }
+
+    /**
+     * Writes everything that is queued. Called by the writer thread and on shutdown, readers use {@link #pending(String)}
+     */
+    void flush() {
+        flushLock.lock();
+        try {
+            // Each batch stays pending until the next one is taken, by then it is written or lost
+            for (List<LoginAttempt> batch = takeBatch(); !batch.isEmpty(); batch = takeBatch()) {
+                write(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private List<LoginAttempt> takeBatch() {
+        List<LoginAttempt> batch = new ArrayList<>(properties.batchSize());
+        pendingLock.lock();
+        try {
+            queue.drainTo(batch, properties.batchSize());
+            writing = batch;
+        } finally {
+            pendingLock.unlock();
+        }
+        return batch;
+    }
+
+    private void write(List<LoginAttempt> batch) {
+        try {
+            // One transaction per batch. Ids come from the pooled sequence, so Hibernate sends the inserts as a JDBC batch
+            flushTimer.record(() -> repository.saveAll(batch));
+            writtenCounter.increment(batch.size());
+        } catch (RuntimeException exception) {
+            failedCounter.increment(batch.size());
+            log.error("Could not write {} login attempts", batch.size(), exception);
+        }
+    }
+
+    private void run() {
+        long flushIntervalNanos = properties.flushInterval().toNanos();
+        while (running) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            flush();
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writerThread = Thread.ofPlatform()
+                .name("login-attempt-writer")
+                .daemon(true)
+                .start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = writerThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        writerThread = null;
+        // Write whatever was queued while the writer was stopping
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the web server, so that the attempts of the last requests are still written
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
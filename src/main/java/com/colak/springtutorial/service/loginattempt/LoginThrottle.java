@@ -0,0 +1,64 @@
+package com.colak.springtutorial.service.loginattempt;
+
+import com.colak.springtutorial.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rejects logins for an email or a client address that had too many failed attempts within the window.
+ * It is checked before the password is verified, so throttled attempts cost neither BCrypt nor the database.
+ * The address is what the servlet request reports, behind a proxy see server.forward-headers-strategy.
+ */
+@Component
+public class LoginThrottle {
+
+    private final LoginAttemptProperties.Throttle properties;
+    private final SlidingWindowCounter emailFailures;
+    private final SlidingWindowCounter addressFailures;
+    private final Counter rejectedCounter;
+
+    public LoginThrottle(LoginAttemptProperties loginAttemptProperties, MeterRegistry meterRegistry) {
+        this.properties = loginAttemptProperties.throttle();
+        this.emailFailures = new SlidingWindowCounter(properties.window(), properties.buckets(), properties.maximumKeys());
+        this.addressFailures = new SlidingWindowCounter(properties.window(), properties.buckets(), properties.maximumKeys());
+        this.rejectedCounter = Counter.builder("login.throttle.rejected")
+                .description("Logins rejected because of too many failed attempts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws TooManyRequestsException if the email or the address is over its limit
+     */
+    public void checkAllowed(String email, String address) {
+        if (!properties.enabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (emailFailures.count(email, now) >= properties.maxFailuresPerEmail()
+            || addressFailures.count(address, now) >= properties.maxFailuresPerAddress()) {
+            rejectedCounter.increment();
+            throw new TooManyRequestsException("Too many failed login attempts, please try again later");
+        }
+    }
+
+    /**
+     * Forgets the failures of the email, so that a user who mistyped their password a few times starts over.
+     * The failures of the address are kept, one known password must not unlock guessing the others from there
+     */
+    public void recordSuccess(String email) {
+        if (!properties.enabled()) {
+            return;
+        }
+        emailFailures.reset(email);
+    }
+
+    public void recordFailure(String email, String address) {
+        if (!properties.enabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        emailFailures.increment(email, now);
+        addressFailures.increment(address, now);
+    }
+}
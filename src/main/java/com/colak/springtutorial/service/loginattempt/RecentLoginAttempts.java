@@ -0,0 +1,105 @@
+package com.colak.springtutorial.service.loginattempt;
+
+import com.colak.springtutorial.jpa.LoginAttempt;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The last N login attempts per user, newest first, kept up to date by every new attempt.
+ * Lists are immutable and replaced on every update, so readers never see a half written list.
+ * Memory is bounded by maximumUsers * size attempts.
+ * A list is reloaded expireAfterWrite after it was loaded, even if it was updated since, so that attempts handled
+ * by other instances show up after at most that long.
+ */
+@Component
+public class RecentLoginAttempts {
+
+    private static final String CACHE_NAME = "login.attempts.recent";
+
+    private final int size;
+    private final Cache<String, List<LoginAttempt>> cache;
+
+    public RecentLoginAttempts(LoginAttemptProperties loginAttemptProperties, MeterRegistry meterRegistry) {
+        LoginAttemptProperties.Recent properties = loginAttemptProperties.recent();
+        this.size = properties.size();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumUsers())
+                .expireAfter(new ExpireAfterLoad(properties.expireAfterWrite()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the recent attempts of the user. On a cold miss they are loaded with the loader
+     */
+    public List<LoginAttempt> get(String email, Function<String, List<LoginAttempt>> loader) {
+        return cache.get(email, loader);
+    }
+
+    /**
+     * Adds the attempt to the user's list if it is cached. Otherwise, the next read loads it from the database.
+     * Must be called after the attempt has been queued. A load of the same user that is in progress is waited for,
+     * and if that load has already read the attempt, from the writer's queue or the database, it is not added twice
+     */
+    public void add(LoginAttempt loginAttempt) {
+        // compute() rather than computeIfPresent(), which does not wait for a load that is in progress
+        cache.asMap().compute(loginAttempt.getEmail(), (email, attempts) -> {
+            if (attempts == null || contains(attempts, loginAttempt)) {
+                return attempts;
+            }
+            List<LoginAttempt> updated = new ArrayList<>(size);
+            updated.add(loginAttempt);
+            for (int i = 0; i < attempts.size() && updated.size() < size; i++) {
+                updated.add(attempts.get(i));
+            }
+            return List.copyOf(updated);
+        });
+    }
+
+    // A load that found the attempt still queued holds the same instance. The id is set once the writer has inserted
+    // the attempt, a copy loaded from the database is a different instance with the same id
+    private static boolean contains(List<LoginAttempt> attempts, LoginAttempt loginAttempt) {
+        Long id = loginAttempt.getId();
+        for (LoginAttempt attempt : attempts) {
+            if (attempt == loginAttempt || (id != null && id.equals(attempt.getId()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Expires a list a fixed time after it was loaded. Updates by add() do not extend its lifetime
+     */
+    private record ExpireAfterLoad(Duration expireAfterWrite) implements Expiry<String, List<LoginAttempt>> {
+
+        @Override
+        public long expireAfterCreate(String key, List<LoginAttempt> value, long currentTime) {
+            return expireAfterWrite.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, List<LoginAttempt> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, List<LoginAttempt> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
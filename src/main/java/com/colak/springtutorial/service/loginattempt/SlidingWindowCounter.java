@@ -0,0 +1,77 @@
+package com.colak.springtutorial.service.loginattempt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Exact per-key event counter over a sliding time window, with bounded memory.
+ * Every key has its own ring of buckets, so the count of one key never depends on how many other keys are seen.
+ * At most maximumKeys rings are kept: Caffeine's W-TinyLFU keeps the keys that fail often and evicts one-off keys,
+ * so spraying many distinct keys can only make the count of a key too low, never too high.
+ * Counts can also be slightly too low right when a bucket is recycled.
+ */
+final class SlidingWindowCounter {
+
+    private final int buckets;
+    private final long bucketMillis;
+    private final Cache<String, BucketRing> rings;
+
+    SlidingWindowCounter(Duration window, int buckets, long maximumKeys) {
+        this.buckets = buckets;
+        this.bucketMillis = Math.max(1, window.toMillis() / buckets);
+        // A key without events for a whole window counts nothing, so its ring can go
+        this.rings = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(window)
+                .build();
+    }
+
+    void increment(String key, long nowMillis) {
+        rings.get(key, ignored -> new BucketRing(buckets)).increment(nowMillis / bucketMillis);
+    }
+
+    void reset(String key) {
+        rings.invalidate(key);
+    }
+
+    int count(String key, long nowMillis) {
+        BucketRing ring = rings.getIfPresent(key);
+        return ring == null ? 0 : ring.count(nowMillis / bucketMillis);
+    }
+
+    private static final class BucketRing {
+
+        private final AtomicIntegerArray counts;
+        // The epoch (time / bucketMillis) each bucket currently counts
+        private final AtomicLongArray bucketEpochs;
+
+        BucketRing(int buckets) {
+            this.counts = new AtomicIntegerArray(buckets);
+            this.bucketEpochs = new AtomicLongArray(buckets);
+        }
+
+        void increment(long epoch) {
+            int bucket = (int) (epoch % counts.length());
+            long current = bucketEpochs.get(bucket);
+            if (current < epoch && bucketEpochs.compareAndSet(bucket, current, epoch)) {
+                counts.set(bucket, 0);
+            }
+            counts.incrementAndGet(bucket);
+        }
+
+        int count(long epoch) {
+            long oldestEpoch = epoch - counts.length() + 1;
+            int sum = 0;
+            for (int bucket = 0; bucket < counts.length(); bucket++) {
+                if (bucketEpochs.get(bucket) >= oldestEpoch) {
+                    sum += counts.get(bucket);
+                }
+            }
+            return sum;
+        }
+    }
+}
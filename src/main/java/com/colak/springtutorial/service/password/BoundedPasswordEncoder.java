@@ -0,0 +1,54 @@
+package com.colak.springtutorial.service.password;
+
+import com.colak.springtutorial.exception.TooManyRequestsException;
+import com.colak.springtutorial.helper.AuthMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the CPU heavy methods of the delegate on the {@link PasswordHashingExecutor}
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    // Includes the wait for a hashing slot, which is what a login actually pays
+    private final Timer matchTimer;
+    private final Timer mismatchTimer;
+    private final Timer rejectedTimer;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.matchTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.PASSWORD_CHECK, "match");
+        this.mismatchTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.PASSWORD_CHECK, "mismatch");
+        this.rejectedTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.PASSWORD_CHECK, "rejected");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        try {
+            boolean matches = executor.execute(() -> delegate.matches(rawPassword, encodedPassword));
+            (matches ? matchTimer : mismatchTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return matches;
+        } catch (TooManyRequestsException exception) {
+            rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw exception;
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
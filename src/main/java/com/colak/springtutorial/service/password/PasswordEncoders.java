@@ -0,0 +1,33 @@
+package com.colak.springtutorial.service.password;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+
+@UtilityClass
+public class PasswordEncoders {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+
+    /**
+     * Creates an encoder that hashes with the configured algorithm and prefixes the hash with its id, e.g. {bcrypt}.
+     * Hashes without a prefix were created before this encoder was introduced and are matched as bcrypt
+     */
+    public static PasswordEncoder create(PasswordProperties properties) {
+        PasswordProperties.Argon2 argon2 = properties.argon2();
+        BCryptPasswordEncoder bcryptEncoder = new BCryptPasswordEncoder(properties.bcrypt().strength());
+        Map<String, PasswordEncoder> encoders = Map.of(
+                BCRYPT, bcryptEncoder,
+                ARGON2, new Argon2PasswordEncoder(argon2.saltLength(), argon2.hashLength(), argon2.parallelism(),
+                        argon2.memory(), argon2.iterations()));
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(properties.encoder(), encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcryptEncoder);
+        return passwordEncoder;
+    }
+}
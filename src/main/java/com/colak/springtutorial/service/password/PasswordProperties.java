@@ -0,0 +1,36 @@
+package com.colak.springtutorial.service.password;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "password")
+public record PasswordProperties(
+        // Id of the algorithm new hashes are created with. Stored hashes of any other algorithm or
+        // of a weaker configuration are re-encoded on the next successful login that finds a free hashing slot
+        @DefaultValue("bcrypt") String encoder,
+        @DefaultValue Bcrypt bcrypt,
+        @DefaultValue Argon2 argon2,
+        @DefaultValue Executor executor) {
+
+    public record Bcrypt(
+            @DefaultValue("10") int strength) {
+    }
+
+    // memory is in KiB
+    public record Argon2(
+            @DefaultValue("16") int saltLength,
+            @DefaultValue("32") int hashLength,
+            @DefaultValue("1") int parallelism,
+            @DefaultValue("16384") int memory,
+            @DefaultValue("2") int iterations) {
+    }
+
+    /**
+     * Password hashing runs on threads fixed at startup, 0 means one per available processor.
+     * At most queueCapacity hashes wait for a thread, any more are rejected with 429
+     */
+    public record Executor(
+            @DefaultValue("0") int threads,
+            @DefaultValue("100") int queueCapacity) {
+    }
+}
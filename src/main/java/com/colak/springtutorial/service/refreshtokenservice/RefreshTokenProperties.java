@@ -0,0 +1,29 @@
+package com.colak.springtutorial.service.refreshtokenservice;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "refresh-token")
+public record RefreshTokenProperties(
+        @DefaultValue Rotation rotation,
+        @DefaultValue Purge purge) {
+
+    /**
+     * When enabled a refresh replaces the presented token on its row instead of inserting a new row
+     */
+    public record Rotation(
+            @DefaultValue("true") boolean enabled) {
+    }
+
+    /**
+     * Every interval, expired tokens are deleted batchSize rows at a time until none are left or timeBudget is used up
+     */
+    public record Purge(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("5m") Duration interval,
+            @DefaultValue("1000") int batchSize,
+            @DefaultValue("10s") Duration timeBudget) {
+    }
+}
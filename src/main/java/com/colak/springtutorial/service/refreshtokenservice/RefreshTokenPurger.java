@@ -0,0 +1,104 @@
+package com.colak.springtutorial.service.refreshtokenservice;
+
+import com.colak.springtutorial.repository.RefreshTokenRepository;
+import com.colak.springtutorial.repository.RetiredRefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Deletes expired refresh tokens in the background. Otherwise abandoned tokens stay in the table forever,
+ * because RefreshTokenService only deletes an expired token when it is presented.
+ * Retired tokens that have expired are deleted as well, a session that keeps rotating would collect them forever.
+ */
+@Slf4j
+@Component
+public class RefreshTokenPurger implements SchedulingConfigurer {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RetiredRefreshTokenRepository retiredRefreshTokenRepository;
+    private final RefreshTokenProperties.Purge properties;
+
+    private final Counter purgedCounter;
+    // How long the oldest expired token left after a run has been expired
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    public RefreshTokenPurger(RefreshTokenRepository refreshTokenRepository,
+                              RetiredRefreshTokenRepository retiredRefreshTokenRepository,
+                              RefreshTokenProperties refreshTokenProperties,
+                              MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.retiredRefreshTokenRepository = retiredRefreshTokenRepository;
+        this.properties = refreshTokenProperties.purge();
+
+        this.purgedCounter = Counter.builder("refresh.tokens.purged")
+                .description("Expired refresh tokens deleted by the purge job")
+                .register(meterRegistry);
+        Gauge.builder("refresh.tokens.purge.lag", lagSeconds, AtomicLong::get)
+                .description("Age of the oldest expired refresh token that is still in the table")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        // Scheduled here rather than by @Scheduled, so that the interval comes from the bound properties.
+        // The first run also waits an interval, so that it does not compete with startup
+        Duration interval = properties.interval();
+        taskRegistrar.addFixedDelayTask(new FixedDelayTask(this::purgeExpiredTokens, interval, interval));
+    }
+
+    public void purgeExpiredTokens() {
+        if (!properties.enabled()) {
+            return;
+        }
+        Instant now = Instant.now();
+        long deadline = System.nanoTime() + properties.timeBudget().toNanos();
+
+        long total = purge(limit -> deleteExpiredTokens(now, limit), deadline);
+        purgedCounter.increment(total);
+        long retired = purge(limit -> deleteExpiredRetiredTokens(now, limit), deadline);
+
+        long lag = refreshTokenRepository.findOldestExpiryDateBefore(now)
+                .map(oldest -> Duration.between(oldest, now).toSeconds())
+                .orElse(0L);
+        lagSeconds.set(lag);
+
+        log.debug("Purged {} expired refresh tokens and {} retired ones, lag is {}s", total, retired, lag);
+    }
+
+    private int deleteExpiredTokens(Instant now, int limit) {
+        List<Long> ids = refreshTokenRepository.findExpiredIds(now, Limit.of(limit));
+        return ids.isEmpty() ? 0 : refreshTokenRepository.deleteExpired(ids, now);
+    }
+
+    private int deleteExpiredRetiredTokens(Instant now, int limit) {
+        List<String> tokenHashes = retiredRefreshTokenRepository.findExpiredTokenHashes(now, Limit.of(limit));
+        if (!tokenHashes.isEmpty()) {
+            retiredRefreshTokenRepository.deleteAllByIdInBatch(tokenHashes);
+        }
+        return tokenHashes.size();
+    }
+
+    private long purge(IntUnaryOperator deleteBatch, long deadline) {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = deleteBatch.applyAsInt(properties.batchSize());
+            total += deleted;
+        } while (deleted == properties.batchSize() && System.nanoTime() < deadline);
+        return total;
+    }
+}
@@ -1,10 +1,17 @@
 package com.colak.springtutorial.service.refreshtokenservice;
 
+import com.colak.springtutorial.exception.AccessDeniedException;
+import com.colak.springtutorial.exception.NotFoundException;
+import com.colak.springtutorial.exception.RefreshTokenExpiredException;
+import com.colak.springtutorial.helper.AuthMetrics;
+import com.colak.springtutorial.helper.TokenDigest;
 import com.colak.springtutorial.jpa.RefreshToken;
 import com.colak.springtutorial.jpa.User;
 import com.colak.springtutorial.repository.RefreshTokenRepository;
+import com.colak.springtutorial.repository.RetiredRefreshTokenRepository;
 import com.colak.springtutorial.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,39 +19,124 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Service
-@RequiredArgsConstructor
 public class RefreshTokenService {
 
+    /**
+     * Lifetime of a refresh token. Sliding renewal of the access token cookie stops at the same age of the login
+     */
+    public static final Duration EXPIRY = Duration.ofHours(24);
+
     private final RefreshTokenRepository refreshTokenRepository;
 
     private final UserRepository userRepository;
 
+    private final RetiredRefreshTokenRepository retiredRefreshTokenRepository;
+
+    private final Timer createdTimer;
+    private final Timer rotatedTimer;
+    private final Timer rejectedTimer;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository,
+                               RetiredRefreshTokenRepository retiredRefreshTokenRepository, MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.retiredRefreshTokenRepository = retiredRefreshTokenRepository;
+        this.createdTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.REFRESH_TOKEN_ISSUE, "created");
+        this.rotatedTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.REFRESH_TOKEN_ISSUE, "rotated");
+        this.rejectedTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.REFRESH_TOKEN_ISSUE, "rejected");
+    }
+
     @Transactional
     public String createRefreshToken(String email){
+        return createdTimer.record(() -> saveRefreshToken(email));
+    }
+
+    private String saveRefreshToken(String email) {
         Optional<User> optionalUser = userRepository.findByEmail(email);
 
         RefreshToken refreshToken = RefreshToken.builder()
                 .user(optionalUser.get())
                 .token(UUID.randomUUID().toString())
-                .expiryDate(Instant.now().plus(Duration.ofHours(24)))
+                .expiryDate(Instant.now().plus(EXPIRY))
                 .build();
         RefreshToken savedRefreshToken = refreshTokenRepository.save(refreshToken);
         return savedRefreshToken.getToken();
     }
 
+    /**
+     * Replaces the presented token with a new value on the same row. The update is conditional on the version that
+     * was read, so only one of several concurrent refreshes with the same token succeeds.
+     * Every replaced token is retired until it would have expired. Presenting any retired token revokes the row,
+     * and with it the whole session, because the token has probably been stolen.
+     * Each repository call runs in its own transaction, so the revocation is not rolled back by the exception.
+     */
+    public RefreshToken rotateRefreshToken(String token) {
+        long start = System.nanoTime();
+        try {
+            RefreshToken rotatedToken = rotate(token);
+            rotatedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return rotatedToken;
+        } catch (RuntimeException exception) {
+            rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw exception;
+        }
+    }
+
+    private RefreshToken rotate(String token) {
+        RefreshToken refreshToken = refreshTokenRepository.findByToken(token)
+                .orElseThrow(() -> unknownToken(token));
+        checkExpiration(refreshToken);
+
+        String newToken = UUID.randomUUID().toString();
+        Instant expiryDate = Instant.now().plus(EXPIRY);
+        int updated = refreshTokenRepository.rotate(refreshToken.getId(), refreshToken.getVersion(), newToken, expiryDate);
+        if (updated == 0) {
+            throw new AccessDeniedException("Refresh token has already been used. Please make a new login..!");
+        }
+        // Only the request that won the rotation gets here, so the old token is retired exactly once
+        retiredRefreshTokenRepository.retire(TokenDigest.sha256(token), refreshToken.getId(), refreshToken.getExpiryDate());
+        return RefreshToken.builder()
+                .id(refreshToken.getId())
+                .token(newToken)
+                .expiryDate(expiryDate)
+                .version(refreshToken.getVersion() + 1)
+                .user(refreshToken.getUser())
+                .build();
+    }
+
+    private RuntimeException unknownToken(String token) {
+        Optional<Long> sessionId = retiredRefreshTokenRepository.findRefreshTokenIdByTokenHash(TokenDigest.sha256(token));
+        if (sessionId.isPresent()) {
+            // The retired tokens of the session are deleted with it by the foreign key
+            refreshTokenRepository.deleteById(sessionId.get());
+            return new AccessDeniedException("Refresh token reuse detected. Please make a new login..!");
+        }
+        return new NotFoundException("Refresh Token is not in DB..!!");
+    }
+
     @Transactional(readOnly = true)
     public Optional<RefreshToken> findByToken(String token){
         return refreshTokenRepository.findByToken(token);
     }
 
-    @Transactional
+    /**
+     * Not transactional, the delete of an expired token runs in its own transaction and is not rolled back by the exception
+     *
+     * @throws RefreshTokenExpiredException if the token has expired
+     */
     public RefreshToken verifyExpiration(RefreshToken token){
-        if(token.getExpiryDate().compareTo(Instant.now())<0){
+        checkExpiration(token);
+        return token;
+    }
+
+    private void checkExpiration(RefreshToken token) {
+        if (token.getExpiryDate().isBefore(Instant.now())) {
             refreshTokenRepository.delete(token);
-            throw new RuntimeException(token.getToken() + " Refresh token is expired. Please make a new login..!");
+            // The token is not part of the message, which ends up in the response and in logs
+            throw new RefreshTokenExpiredException("Refresh token is expired. Please make a new login..!");
         }
-        return token;
     }
 }
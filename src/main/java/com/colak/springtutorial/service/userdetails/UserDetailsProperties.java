@@ -0,0 +1,22 @@
+package com.colak.springtutorial.service.userdetails;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "user-details")
+public record UserDetailsProperties(
+        @DefaultValue Cache cache) {
+
+    /**
+     * Entries are reloaded in the background once they are older than refreshAfterWrite,
+     * and dropped once they are older than expireAfterWrite
+     */
+    public record Cache(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("100000") long maximumSize,
+            @DefaultValue("10m") Duration expireAfterWrite,
+            @DefaultValue("5m") Duration refreshAfterWrite) {
+    }
+}
@@ -1,28 +1,169 @@
 package com.colak.springtutorial.service.userdetails;
 
 import com.colak.springtutorial.exception.NotFoundException;
+import com.colak.springtutorial.helper.AuthMetrics;
+import com.colak.springtutorial.jpa.Role;
 import com.colak.springtutorial.jpa.User;
 import com.colak.springtutorial.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Loads users behind a bounded in-memory cache. Hit ratio and load latency are published as "cache.*" metrics
+ * with the tag cache=user.details. Any code that changes a user's password or roles must call {@link #evictUser(String)}.
+ * A new user needs no eviction, because a user that is not found is not cached
+ */
 @Service
-@RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final String CACHE_NAME = "user.details";
 
     private final UserRepository repository;
 
+    private final Timer foundTimer;
+    private final Timer notFoundTimer;
+
+    // null when the cache is disabled
+    private final LoadingCache<String, CachedUser> cache;
+
+    public UserDetailsServiceImpl(UserRepository repository,
+                                  UserDetailsProperties userDetailsProperties,
+                                  MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.foundTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.USER_LOOKUP, "found");
+        this.notFoundTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.USER_LOOKUP, "not_found");
+
+        UserDetailsProperties.Cache properties = userDetailsProperties.cache();
+        if (!properties.enabled()) {
+            this.cache = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.expireAfterWrite())
+                .refreshAfterWrite(properties.refreshAfterWrite())
+                .recordStats()
+                .build(new UserLoader());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
     @Override
-    public UserDetails loadUserByUsername(String email) {
+    public AuthenticatedUser loadUserByUsername(String email) {
+        return timedLoad(email, cache == null ? this::load : cache::get);
+    }
+
+    /**
+     * Reads the user from the database without looking at the cache, so that a deleted user or a changed role
+     * takes effect on the next request. Used by strict token authentication
+     */
+    public AuthenticatedUser loadUserFromDatabase(String email) {
+        return timedLoad(email, this::load);
+    }
 
-        User user = repository.findByEmail(email)
+    private AuthenticatedUser timedLoad(String email, Function<String, CachedUser> loader) {
+        long start = System.nanoTime();
+        CachedUser user;
+        try {
+            user = loader.apply(email);
+        } catch (NotFoundException exception) {
+            notFoundTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw exception;
+        }
+        foundTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        // A new principal is returned every time, because Spring Security erases its credentials after authentication
+        return user.toAuthenticatedUser();
+    }
+
+    /**
+     * Called by Spring Security after a successful login when the stored hash was created with an outdated
+     * algorithm or cost. The new hash has already been encoded with the configured one
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        repository.updatePassword(user.getUsername(), newPassword);
+        evictUser(user.getUsername());
+
+        AuthenticatedUser authenticatedUser = (AuthenticatedUser) user;
+        return new AuthenticatedUser(authenticatedUser.getId(), user.getUsername(), newPassword, user.getAuthorities());
+    }
+
+    /**
+     * Inside a transaction the user is evicted after the commit. Evicted earlier, a concurrent request could load
+     * the uncommitted old row and cache it again
+     */
+    public void evictUser(String email) {
+        if (cache == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidate(email);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.invalidate(email);
+            }
+        });
+    }
+
+    private CachedUser load(String email) {
+        // The roles are fetched by the same query, so no transaction is needed to read them
+        User user = repository.findWithAuthoritiesByEmail(email)
                 .orElseThrow(() -> new NotFoundException(String.format("User does not exist, email: %s", email)));
 
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(user.getPassword())
-                .build();
+        return new CachedUser(
+                user.getId(),
+                user.getEmail(),
+                user.getPassword(),
+                user.getAuthorities().stream()
+                        .map(Role::getAuthority)
+                        .toList());
+    }
+
+    private class UserLoader implements CacheLoader<String, CachedUser> {
+
+        @Override
+        public CachedUser load(String email) {
+            return UserDetailsServiceImpl.this.load(email);
+        }
+
+        @Override
+        public CachedUser reload(String email, CachedUser oldValue) {
+            try {
+                return load(email);
+            } catch (NotFoundException exception) {
+                // The user has been deleted, returning null removes the entry
+                return null;
+            }
+        }
+    }
+
+    private record CachedUser(Long id, String email, String password, List<String> roles) {
+
+        AuthenticatedUser toAuthenticatedUser() {
+            return new AuthenticatedUser(
+                    id,
+                    email,
+                    password,
+                    roles.stream()
+                            .map(SimpleGrantedAuthority::new)
+                            .toList());
+        }
     }
 }
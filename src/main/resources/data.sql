@@ -1,9 +1,9 @@
 --password is 'password' in bcrypt encoding
-insert into users (email, password)
-values ('orcun@example.com', '$2a$10$8fwn0LUKql6wTzJHO2QoQ.Nd.59eIyFwaucgBJoiZ/T5SqrqNmyBm');
+insert into users (id, email, password)
+values (NEXT VALUE FOR users_seq, 'orcun@example.com', '$2a$10$8fwn0LUKql6wTzJHO2QoQ.Nd.59eIyFwaucgBJoiZ/T5SqrqNmyBm');
 
-insert into roles (authority) values ('ROLE_ADMIN');
-insert into roles (authority) values ('ROLE_USER');
+insert into roles (id, authority) values (NEXT VALUE FOR roles_seq, 'ROLE_ADMIN');
+insert into roles (id, authority) values (NEXT VALUE FOR roles_seq, 'ROLE_USER');
 
-insert into user_role (user_id, role_id) values (1, 1);
-insert into user_role (user_id, role_id) values (1, 2);
+insert into user_role (user_id, role_id)
+select u.id, r.id from users u, roles r where u.email = 'orcun@example.com';
@@ -1,12 +1,19 @@
+-- Ids come from pooled sequences (INCREMENT BY must match allocationSize of the entities),
+-- so that Hibernate can batch inserts. IDENTITY columns force a round trip per insert.
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE roles_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE login_attempts_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE refresh_tokens_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE users (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT NOT NULL,
     email VARCHAR(100) NOT NULL UNIQUE,
     password VARCHAR(255) NOT NULL,
     primary key (id)
 );
 
 CREATE TABLE roles (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT NOT NULL,
     authority VARCHAR(50) NOT NULL UNIQUE,
    primary key (id)
 );
@@ -20,18 +27,40 @@ CREATE TABLE user_role (
 );
 
 CREATE TABLE login_attempts (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     email VARCHAR(100) NOT NULL,
     success BOOLEAN NOT NULL,
     created_at TIMESTAMP NOT NULL
 );
 
+-- Serves the recent attempts queries of an email straight from the index in the requested order.
+-- id breaks ties between attempts with the same created_at, so the keyset pages need no sort either.
+-- success is part of the key so that the query does not need to visit the table rows
+CREATE INDEX ix_login_attempts_email_created_at ON login_attempts (email, created_at DESC, id DESC, success);
+
 CREATE TABLE refresh_tokens (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     token VARCHAR(255),
     expiry_date TIMESTAMP,
+    version BIGINT DEFAULT 0 NOT NULL,
     user_id BIGINT,
     CONSTRAINT fk_user FOREIGN KEY (user_id) REFERENCES users(id)
 );
 
+-- findByToken runs on every refresh, without this index it scans the whole table
+CREATE UNIQUE INDEX ux_refresh_tokens_token ON refresh_tokens (token);
+-- Lets the purge job find expired tokens without scanning the table
+CREATE INDEX ix_refresh_tokens_expiry_date ON refresh_tokens (expiry_date);
+
+-- Every token that a rotation has replaced, kept as its SHA-256 digest until it would have expired.
+-- Presenting any of them revokes the session it belongs to, however many rotations ago it was replaced
+CREATE TABLE retired_refresh_tokens (
+    token_hash VARCHAR(64) PRIMARY KEY,
+    refresh_token_id BIGINT NOT NULL,
+    expiry_date TIMESTAMP NOT NULL,
+    CONSTRAINT fk_refresh_token FOREIGN KEY (refresh_token_id) REFERENCES refresh_tokens(id) ON DELETE CASCADE
+);
+
+-- Lets the purge job find expired retired tokens without scanning the table
+CREATE INDEX ix_retired_refresh_tokens_expiry_date ON retired_refresh_tokens (expiry_date);
 
@@ -0,0 +1,129 @@
+package com.colak.springtutorial.configuration;
+
+import com.colak.springtutorial.helper.JwtHelper;
+import com.colak.springtutorial.helper.JwtKeyRing;
+import com.colak.springtutorial.helper.VerifiedJwt;
+import com.colak.springtutorial.service.accesstoken.AccessTokenService;
+import com.colak.springtutorial.service.refreshtokenservice.RefreshTokenService;
+import com.colak.springtutorial.service.userdetails.AuthenticatedUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessTokenRenewerTest {
+
+    private static final String TOKEN = "header.payload.signature";
+    private static final JwtHelper JWT_HELPER = new JwtHelper(JwtKeyRing.ephemeral());
+
+    private final AccessTokenRenewer renewer = renewer(true);
+
+    @Test
+    void shouldRenewCookieToken_WithinWindow() {
+        MockHttpServletRequest request = cookieRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        renewer.renewIfExpiring(request, response, authentication(Duration.ofMinutes(2)));
+
+        assertThat(response.getHeader(HttpHeaders.SET_COOKIE))
+                .startsWith(BearerAuthenticationConverter.COOKIE_NAME + "=")
+                .doesNotContain(TOKEN)
+                .contains("Max-Age=1800")
+                .contains("HttpOnly");
+    }
+
+    @Test
+    void shouldKeepAuthTime_OfRenewedToken() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Instant authTime = Instant.now().minus(Duration.ofHours(3)).truncatedTo(ChronoUnit.SECONDS);
+
+        renewer.renewIfExpiring(cookieRequest(), response, authentication(Duration.ofMinutes(2), authTime));
+
+        String cookie = response.getCookie(BearerAuthenticationConverter.COOKIE_NAME).getValue();
+        assertThat(JWT_HELPER.verify(cookie).authTime()).isEqualTo(authTime);
+    }
+
+    @Test
+    void shouldNotRenew_AfterRefreshTokenLifetime() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Instant authTime = Instant.now().minus(RefreshTokenService.EXPIRY).minus(Duration.ofMinutes(1));
+
+        renewer.renewIfExpiring(cookieRequest(), response, authentication(Duration.ofMinutes(2), authTime));
+
+        assertThat(response.getHeader(HttpHeaders.SET_COOKIE)).isNull();
+    }
+
+    @Test
+    void shouldNotRenew_WithoutAuthTime() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        renewer.renewIfExpiring(cookieRequest(), response, authentication(Duration.ofMinutes(2), null));
+
+        assertThat(response.getHeader(HttpHeaders.SET_COOKIE)).isNull();
+    }
+
+    @Test
+    void shouldNotRenewCookieToken_OutsideWindow() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        renewer.renewIfExpiring(cookieRequest(), response, authentication(Duration.ofMinutes(10)));
+
+        assertThat(response.getHeader(HttpHeaders.SET_COOKIE)).isNull();
+    }
+
+    @Test
+    void shouldNotRenewBearerToken() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.AUTHORIZATION, BearerAuthenticationConverter.BEARER_PREFIX + TOKEN);
+        BearerAuthenticationConverter.getToken(request);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        renewer.renewIfExpiring(request, response, authentication(Duration.ofMinutes(2)));
+
+        assertThat(response.getHeader(HttpHeaders.SET_COOKIE)).isNull();
+    }
+
+    @Test
+    void shouldNotRenew_WhenDisabled() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        renewer(false).renewIfExpiring(cookieRequest(), response, authentication(Duration.ofMinutes(2)));
+
+        assertThat(response.getHeader(HttpHeaders.SET_COOKIE)).isNull();
+    }
+
+    private static AccessTokenRenewer renewer(boolean enabled) {
+        JwtProperties jwtProperties = TestJwtProperties.of("jwt.sliding-renewal.enabled=" + enabled);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new AccessTokenRenewer(jwtProperties, new AccessTokenService(JWT_HELPER, meterRegistry), meterRegistry);
+    }
+
+    private static MockHttpServletRequest cookieRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.COOKIE, BearerAuthenticationConverter.COOKIE_NAME + "=" + TOKEN);
+        BearerAuthenticationConverter.getToken(request);
+        return request;
+    }
+
+    private static JwtAuthenticationToken authentication(Duration expiresIn) {
+        return authentication(expiresIn, Instant.now().minus(Duration.ofHours(1)));
+    }
+
+    private static JwtAuthenticationToken authentication(Duration expiresIn, Instant authTime) {
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        AuthenticatedUser user = new AuthenticatedUser(1L, "nick@gmail.com", "", authorities);
+        Instant now = Instant.now();
+        VerifiedJwt jwt = new VerifiedJwt("nick@gmail.com", 1L, now.minus(Duration.ofMinutes(15)).plus(expiresIn),
+                now.plus(expiresIn), authTime, List.of("ROLE_USER"));
+        return new JwtAuthenticationToken(user, jwt, authorities);
+    }
+}
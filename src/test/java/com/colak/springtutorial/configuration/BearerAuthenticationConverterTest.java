@@ -0,0 +1,65 @@
+package com.colak.springtutorial.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static com.colak.springtutorial.configuration.BearerAuthenticationConverter.COOKIE_NAME;
+import static com.colak.springtutorial.configuration.BearerAuthenticationConverter.findCookieValue;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BearerAuthenticationConverterTest {
+
+    @Test
+    void shouldFindCookie_AmongOtherCookies() {
+        assertThat(findCookieValue("theme=dark; accessToken=abc; consent=yes", COOKIE_NAME)).isEqualTo("abc");
+        assertThat(findCookieValue("accessToken=abc", COOKIE_NAME)).isEqualTo("abc");
+        assertThat(findCookieValue("theme=dark", COOKIE_NAME)).isNull();
+    }
+
+    @Test
+    void shouldUnquoteQuotedValue() {
+        assertThat(findCookieValue("accessToken=\"abc\"", COOKIE_NAME)).isEqualTo("abc");
+        assertThat(findCookieValue("accessToken=\"\"", COOKIE_NAME)).isNull();
+    }
+
+    @Test
+    void shouldReturnNull_ForEmptyValue() {
+        assertThat(findCookieValue("accessToken=; theme=dark", COOKIE_NAME)).isNull();
+        assertThat(findCookieValue("accessToken=", COOKIE_NAME)).isNull();
+    }
+
+    @Test
+    void shouldNotMatchNames_ThatShareThePrefix() {
+        assertThat(findCookieValue("accessTokenOld=old; accessToken=new", COOKIE_NAME)).isEqualTo("new");
+        assertThat(findCookieValue("accessTokenOld=old", COOKIE_NAME)).isNull();
+        assertThat(findCookieValue("oldaccessToken=old", COOKIE_NAME)).isNull();
+    }
+
+    @Test
+    void shouldIgnoreTrailingSemicolon() {
+        assertThat(findCookieValue("accessToken=abc;", COOKIE_NAME)).isEqualTo("abc");
+        assertThat(findCookieValue("theme=dark; accessToken=abc; ", COOKIE_NAME)).isEqualTo("abc");
+    }
+
+    @Test
+    void shouldTolerateTabsAndWhitespaceAroundEquals() {
+        assertThat(findCookieValue("theme=dark;\taccessToken=abc", COOKIE_NAME)).isEqualTo("abc");
+        assertThat(findCookieValue("theme=dark; accessToken = abc ; consent=yes", COOKIE_NAME)).isEqualTo("abc");
+        assertThat(findCookieValue("accessToken\t=\tabc", COOKIE_NAME)).isEqualTo("abc");
+    }
+
+    @Test
+    void shouldPreferAuthorizationHeader_AndRecordCookieSource() {
+        MockHttpServletRequest headerRequest = new MockHttpServletRequest();
+        headerRequest.addHeader(HttpHeaders.AUTHORIZATION, BearerAuthenticationConverter.BEARER_PREFIX + "header");
+        headerRequest.addHeader(HttpHeaders.COOKIE, COOKIE_NAME + "=cookie");
+        assertThat(BearerAuthenticationConverter.getToken(headerRequest)).isEqualTo("header");
+        assertThat(BearerAuthenticationConverter.isCookieToken(headerRequest)).isFalse();
+
+        MockHttpServletRequest cookieRequest = new MockHttpServletRequest();
+        cookieRequest.addHeader(HttpHeaders.COOKIE, COOKIE_NAME + "=cookie");
+        assertThat(BearerAuthenticationConverter.getToken(cookieRequest)).isEqualTo("cookie");
+        assertThat(BearerAuthenticationConverter.isCookieToken(cookieRequest)).isTrue();
+    }
+}
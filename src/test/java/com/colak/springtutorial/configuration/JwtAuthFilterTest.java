@@ -0,0 +1,90 @@
+package com.colak.springtutorial.configuration;
+
+import com.colak.springtutorial.exception.InvalidTokenException;
+import com.colak.springtutorial.helper.JwtHelper;
+import com.colak.springtutorial.helper.JwtKeyRing;
+import com.colak.springtutorial.helper.JwtValidationResult;
+import com.colak.springtutorial.jfr.AuthenticationEvent;
+import com.colak.springtutorial.service.accesstoken.AccessTokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtAuthFilterTest {
+
+    private static final String TOKEN = "header.payload.signature";
+    private static final Duration AUTHENTICATION_TIME = Duration.ofMillis(20);
+
+    @Test
+    void shouldRecordAuthenticationDuration_OfRejectedToken() throws Exception {
+        RecordedEvent event = filter(authentication -> {
+            sleep();
+            throw InvalidTokenException.of(JwtValidationResult.Reason.EXPIRED);
+        });
+
+        assertThat(event.getString("outcome")).isEqualTo(AuthenticationEvent.REJECTED);
+        assertThat(event.getLong("authenticationDuration")).isGreaterThanOrEqualTo(AUTHENTICATION_TIME.toNanos());
+    }
+
+    @Test
+    void shouldRecordAuthenticationDuration_OfFailedAuthentication() throws Exception {
+        RecordedEvent event = filter(authentication -> {
+            sleep();
+            throw new IllegalStateException("user lookup failed");
+        });
+
+        assertThat(event.getString("outcome")).isEqualTo(AuthenticationEvent.FAILED);
+        assertThat(event.getLong("authenticationDuration")).isGreaterThanOrEqualTo(AUTHENTICATION_TIME.toNanos());
+    }
+
+    private static RecordedEvent filter(AuthenticationManager authenticationManager) throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtProperties jwtProperties = TestJwtProperties.of();
+        JwtAuthFilter jwtAuthFilter = new JwtAuthFilter(new ErrorResponseWriter(new ObjectMapper()), authenticationManager,
+                new AccessTokenRenewer(jwtProperties, new AccessTokenService(new JwtHelper(JwtKeyRing.ephemeral()), meterRegistry), meterRegistry), meterRegistry);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/auth/loginAttempts");
+        request.setServletPath("/api/auth/loginAttempts");
+        request.addHeader(HttpHeaders.AUTHORIZATION, BearerAuthenticationConverter.BEARER_PREFIX + TOKEN);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        Path file = Files.createTempFile("authentication", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(AuthenticationEvent.NAME);
+            recording.start();
+            jwtAuthFilter.doFilter(request, response, new MockFilterChain());
+            recording.stop();
+            recording.dump(file);
+
+            assertThat(response.getStatus()).isEqualTo(403);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertThat(events).hasSize(1);
+            return events.getFirst();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(AUTHENTICATION_TIME);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
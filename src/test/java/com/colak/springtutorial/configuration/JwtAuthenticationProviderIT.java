@@ -0,0 +1,76 @@
+package com.colak.springtutorial.configuration;
+
+import com.colak.springtutorial.dto.signup.SignupRequestDto;
+import com.colak.springtutorial.exception.NotFoundException;
+import com.colak.springtutorial.helper.JwtHelper;
+import com.colak.springtutorial.jpa.User;
+import com.colak.springtutorial.service.registration.RegistrationService;
+import com.colak.springtutorial.service.userdetails.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Same configuration as the controller tests, so that the application context is shared
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+class JwtAuthenticationProviderIT {
+
+    private static final String EMAIL = "mason@gmail.com";
+
+    @SuppressWarnings("unused")
+    @Autowired
+    private JwtHelper jwtHelper;
+
+    @SuppressWarnings("unused")
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @SuppressWarnings("unused")
+    @Autowired
+    private RegistrationService registrationService;
+
+    @SuppressWarnings("unused")
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldLoadUserPastTheCache_InStrictMode() {
+        User user = registrationService.signup(new SignupRequestDto(EMAIL, "password", List.of("ROLE_USER")));
+        String token = jwtHelper.generateAccessToken(EMAIL, user.getId(), List.of("ROLE_USER"));
+        JwtAuthenticationProvider provider = strictProvider();
+        // Put the user with its role into the user details cache
+        userDetailsService.loadUserByUsername(EMAIL);
+
+        // Change the user behind the cache's back
+        jdbcTemplate.update("DELETE FROM user_role WHERE user_id = ?", user.getId());
+
+        Authentication authentication = provider.authenticate(new JwtAuthenticationToken(token));
+        assertThat(authentication.getAuthorities()).isEmpty();
+        assertThat(userDetailsService.loadUserByUsername(EMAIL).getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER");
+
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+
+        assertThatThrownBy(() -> provider.authenticate(new JwtAuthenticationToken(token)))
+                .isInstanceOf(NotFoundException.class);
+        userDetailsService.evictUser(EMAIL);
+    }
+
+    private JwtAuthenticationProvider strictProvider() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtProperties jwtProperties = TestJwtProperties.of("jwt.strict=true");
+        return new JwtAuthenticationProvider(jwtHelper, userDetailsService,
+                new JwtAuthenticationCache(jwtProperties, meterRegistry), jwtProperties, meterRegistry);
+    }
+}
@@ -0,0 +1,73 @@
+package com.colak.springtutorial.configuration;
+
+import com.colak.springtutorial.helper.AuthMetrics;
+import com.colak.springtutorial.helper.JwtHelper;
+import com.colak.springtutorial.helper.JwtKeyRing;
+import com.colak.springtutorial.service.userdetails.AuthenticatedUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtAuthenticationProviderTest {
+
+    private final JwtHelper jwtHelper = new JwtHelper(JwtKeyRing.ephemeral());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldBuildSeparateAuthentications_FromCachedToken() {
+        JwtProperties jwtProperties = TestJwtProperties.of("jwt.authentication-cache.enabled=true");
+        // Claims mode never loads the user
+        JwtAuthenticationProvider provider = new JwtAuthenticationProvider(jwtHelper, null,
+                new JwtAuthenticationCache(jwtProperties, meterRegistry), jwtProperties, meterRegistry);
+        ProviderManager providerManager = new ProviderManager(provider);
+        String token = jwtHelper.generateAccessToken("nick@gmail.com", 1L, List.of("ROLE_USER"));
+
+        Authentication first = providerManager.authenticate(request(token, "192.0.2.1"));
+        Authentication second = providerManager.authenticate(request(token, "192.0.2.2"));
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getPrincipal()).isNotSameAs(first.getPrincipal());
+        assertThat(((WebAuthenticationDetails) first.getDetails()).getRemoteAddress()).isEqualTo("192.0.2.1");
+        assertThat(((WebAuthenticationDetails) second.getDetails()).getRemoteAddress()).isEqualTo("192.0.2.2");
+        // The second request was served from the cache
+        assertThat(meterRegistry.get(AuthMetrics.STAGE_TIMER)
+                .tags("stage", AuthMetrics.TOKEN_VERIFICATION, "outcome", "valid")
+                .timer()
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRebuildPrincipal_FromClaims() {
+        JwtProperties jwtProperties = TestJwtProperties.of();
+        // Without a user details service any lookup would fail
+        JwtAuthenticationProvider provider = new JwtAuthenticationProvider(jwtHelper, null,
+                new JwtAuthenticationCache(jwtProperties, meterRegistry), jwtProperties, meterRegistry);
+        String token = jwtHelper.generateAccessToken("nick@gmail.com", 7L, List.of("ROLE_ADMIN", "ROLE_USER"));
+
+        Authentication authentication = provider.authenticate(new JwtAuthenticationToken(token));
+
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        assertThat(user.getId()).isEqualTo(7L);
+        assertThat(user.getUsername()).isEqualTo("nick@gmail.com");
+        assertThat(authentication.getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("ROLE_ADMIN", "ROLE_USER");
+    }
+
+    private static JwtAuthenticationToken request(String token, String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddress);
+        JwtAuthenticationToken authentication = new JwtAuthenticationToken(token);
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        return authentication;
+    }
+}
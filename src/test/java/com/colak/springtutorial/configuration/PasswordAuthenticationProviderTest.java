@@ -0,0 +1,93 @@
+package com.colak.springtutorial.configuration;
+
+import com.colak.springtutorial.exception.TooManyRequestsException;
+import com.colak.springtutorial.service.password.PasswordEncoders;
+import com.colak.springtutorial.service.password.PasswordProperties;
+import com.colak.springtutorial.service.userdetails.AuthenticatedUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordAuthenticationProviderTest {
+
+    private static final String EMAIL = "nick@gmail.com";
+    private static final String PASSWORD = "123456";
+    // Created before the delegating encoder, without an algorithm prefix
+    private static final String LEGACY_HASH = new BCryptPasswordEncoder(4).encode(PASSWORD);
+
+    private final PasswordEncoder passwordEncoder = PasswordEncoders.create(new Binder(
+            new MapConfigurationPropertySource(Map.of("password.bcrypt.strength", "4")))
+            .bindOrCreate("password", PasswordProperties.class));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicReference<String> storedHash = new AtomicReference<>(LEGACY_HASH);
+
+    @Test
+    void shouldUpgradeLegacyHash() {
+        Authentication authentication = provider(passwordEncoder)
+                .authenticate(new UsernamePasswordAuthenticationToken(EMAIL, PASSWORD));
+
+        assertThat(authentication.isAuthenticated()).isTrue();
+        assertThat(storedHash.get()).startsWith("{bcrypt}");
+        assertThat(passwordEncoder.matches(PASSWORD, storedHash.get())).isTrue();
+        assertThat(upgradeCount("upgraded")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldLogin_WhenUpgradeIsRejected() {
+        // Like BoundedPasswordEncoder when the hashing queue is full
+        PasswordEncoder saturatedEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                // DaoAuthenticationProvider also hashes a dummy password once, for its timing attack protection
+                if (!PASSWORD.contentEquals(rawPassword)) {
+                    return passwordEncoder.encode(rawPassword);
+                }
+                throw new TooManyRequestsException("Too many login requests, please try again later");
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return passwordEncoder.matches(rawPassword, encodedPassword);
+            }
+
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return passwordEncoder.upgradeEncoding(encodedPassword);
+            }
+        };
+
+        Authentication authentication = provider(saturatedEncoder)
+                .authenticate(new UsernamePasswordAuthenticationToken(EMAIL, PASSWORD));
+
+        assertThat(authentication.isAuthenticated()).isTrue();
+        // Tried again on the next login
+        assertThat(storedHash.get()).isEqualTo(LEGACY_HASH);
+        assertThat(upgradeCount("skipped")).isEqualTo(1);
+    }
+
+    private PasswordAuthenticationProvider provider(PasswordEncoder encoder) {
+        return new PasswordAuthenticationProvider(
+                email -> new AuthenticatedUser(1L, email, storedHash.get(), List.of()),
+                encoder,
+                (user, newPassword) -> {
+                    storedHash.set(newPassword);
+                    return new AuthenticatedUser(1L, user.getUsername(), newPassword, user.getAuthorities());
+                },
+                meterRegistry);
+    }
+
+    private double upgradeCount(String outcome) {
+        return meterRegistry.get("password.upgrade").tag("outcome", outcome).counter().count();
+    }
+}
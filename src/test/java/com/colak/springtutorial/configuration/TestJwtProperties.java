@@ -0,0 +1,25 @@
+package com.colak.springtutorial.configuration;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@UtilityClass
+public class TestJwtProperties {
+
+    /**
+     * Binds JwtProperties the way the application does, so every property that is not given keeps its default.
+     * The properties are "name=value" pairs, e.g. "jwt.sliding-renewal.enabled=true"
+     */
+    public static JwtProperties of(String... properties) {
+        Map<String, String> source = new LinkedHashMap<>();
+        for (String property : properties) {
+            String[] parts = property.split("=", 2);
+            source.put(parts[0], parts[1]);
+        }
+        return new Binder(new MapConfigurationPropertySource(source)).bindOrCreate("jwt", JwtProperties.class);
+    }
+}
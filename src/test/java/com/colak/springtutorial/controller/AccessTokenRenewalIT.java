@@ -0,0 +1,117 @@
+package com.colak.springtutorial.controller;
+
+import com.colak.springtutorial.configuration.BearerAuthenticationConverter;
+import com.colak.springtutorial.dto.login.LoginRequestDto;
+import com.colak.springtutorial.dto.login.LoginResponseDto;
+import com.colak.springtutorial.dto.signup.SignupRequestDto;
+import com.colak.springtutorial.helper.JwtHelper;
+import com.colak.springtutorial.service.refreshtokenservice.RefreshTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.colak.springtutorial.controller.LoginControllerIT.LOGIN_URL;
+import static com.colak.springtutorial.controller.RegistrationControllerIT.SIGNUP_URL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The window is longer than the lifetime of an access token, so every cookie token is renewed. This needs its own
+ * context with its own database
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "jwt.sliding-renewal.enabled=true",
+        "jwt.sliding-renewal.window=20m",
+        "spring.datasource.url=jdbc:h2:mem:access-token-renewal"
+})
+@AutoConfigureWebTestClient
+@DirtiesContext
+class AccessTokenRenewalIT {
+
+    private static final String LOGIN_ATTEMPTS_URL = "/api/auth/loginAttempts";
+
+    @SuppressWarnings("unused")
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @SuppressWarnings("unused")
+    @Autowired
+    private JwtHelper jwtHelper;
+
+    @Test
+    void shouldRenewAccessTokenCookie_OnResponse() {
+        String accessToken = login("charlotte@gmail.com");
+
+        ResponseCookie cookie = webTestClient
+                .get().uri(LOGIN_ATTEMPTS_URL)
+                .header(HttpHeaders.COOKIE, BearerAuthenticationConverter.COOKIE_NAME + "=" + accessToken)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectCookie()
+                .httpOnly(BearerAuthenticationConverter.COOKIE_NAME, true)
+                .returnResult(String.class)
+                .getResponseCookies()
+                .getFirst(BearerAuthenticationConverter.COOKIE_NAME);
+
+        assertThat(cookie).isNotNull();
+        // The renewed token still carries the time of the login
+        assertThat(jwtHelper.verify(cookie.getValue()).authTime()).isEqualTo(jwtHelper.verify(accessToken).authTime());
+    }
+
+    @Test
+    void shouldNotRenewAccessTokenCookie_AfterRefreshTokenLifetime() {
+        login("amelia@gmail.com");
+        // Signed like a token that has been renewed for longer than a refresh token lives
+        Instant authTime = Instant.now().minus(RefreshTokenService.EXPIRY).minus(Duration.ofMinutes(1));
+        String accessToken = jwtHelper.generateAccessToken("amelia@gmail.com", null, List.of(), authTime);
+
+        webTestClient
+                .get().uri(LOGIN_ATTEMPTS_URL)
+                .header(HttpHeaders.COOKIE, BearerAuthenticationConverter.COOKIE_NAME + "=" + accessToken)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .doesNotExist(HttpHeaders.SET_COOKIE);
+    }
+
+    private String login(String email) {
+        SignupRequestDto signupRequest = new SignupRequestDto(
+                email,
+                "123456",
+                new ArrayList<>()
+        );
+        webTestClient
+                .post().uri(SIGNUP_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(signupRequest)
+                .exchange()
+                .expectStatus()
+                .isCreated();
+
+        LoginRequestDto loginRequest = new LoginRequestDto(email, "123456");
+        LoginResponseDto loginResponse = webTestClient
+                .post().uri(LOGIN_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(loginRequest)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(LoginResponseDto.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(loginResponse).isNotNull();
+        return loginResponse.accessToken();
+    }
+}
@@ -0,0 +1,80 @@
+package com.colak.springtutorial.controller;
+
+import com.colak.springtutorial.dto.login.LoginRequestDto;
+import com.colak.springtutorial.dto.login.LoginResponseDto;
+import com.colak.springtutorial.dto.signup.SignupRequestDto;
+import com.colak.springtutorial.helper.JwtKeyRing;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+
+import static com.colak.springtutorial.controller.JwksController.JWKS_PATH;
+import static com.colak.springtutorial.controller.LoginControllerIT.LOGIN_URL;
+import static com.colak.springtutorial.controller.RegistrationControllerIT.SIGNUP_URL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+class JwksControllerIT {
+
+    @SuppressWarnings("unused")
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @SuppressWarnings("unused")
+    @Autowired
+    private JwtKeyRing jwtKeyRing;
+
+    @Test
+    void shouldPublishJwks_WithoutAuthentication() {
+        webTestClient
+                .get().uri(JWKS_PATH)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.keys").isArray();
+    }
+
+    @Test
+    void shouldSignAccessToken_WithActiveKeyId() {
+        SignupRequestDto signupRequest = new SignupRequestDto(
+                "ava@gmail.com",
+                "123456",
+                new ArrayList<>()
+        );
+        webTestClient
+                .post().uri(SIGNUP_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(signupRequest)
+                .exchange()
+                .expectStatus()
+                .isCreated();
+
+        LoginRequestDto loginRequest = new LoginRequestDto("ava@gmail.com","123456");
+        LoginResponseDto loginResponse = webTestClient
+                .post().uri(LOGIN_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(loginRequest)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(LoginResponseDto.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(loginResponse).isNotNull();
+        String header = loginResponse.accessToken().substring(0, loginResponse.accessToken().indexOf('.'));
+        String decodedHeader = new String(Base64.getUrlDecoder().decode(header), StandardCharsets.UTF_8);
+        assertThat(decodedHeader).contains("\"kid\":\"" + jwtKeyRing.activeKeyId() + "\"");
+    }
+}
@@ -4,8 +4,11 @@ import com.colak.springtutorial.configuration.BearerAuthenticationConverter;
 import com.colak.springtutorial.dto.ApiErrorResponseDto;
 import com.colak.springtutorial.dto.login.LoginRequestDto;
 import com.colak.springtutorial.dto.login.LoginResponseDto;
+import com.colak.springtutorial.dto.loginattempt.LoginAttemptPageResponseDto;
 import com.colak.springtutorial.dto.loginattempt.LoginAttemptResponseDto;
 import com.colak.springtutorial.dto.signup.SignupRequestDto;
+import com.colak.springtutorial.helper.JwtKeyRing;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
@@ -27,6 +30,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 class LoginAttemptControllerIT {
 
     private static final String LOGIN_ATTEMPTS_URL = "/api/auth/loginAttempts";
+    private static final String LOGIN_ATTEMPTS_PAGE_URL = "/api/auth/loginAttempts/page";
 
     @SuppressWarnings("unused")
     @Autowired
@@ -80,6 +84,163 @@ class LoginAttemptControllerIT {
         assertThat(firstLoginAttempt.success()).isTrue();
     }
 
+    @Test
+    void shouldReturnLoginAttemptsPageByPage() {
+        SignupRequestDto signupRequest = new SignupRequestDto(
+                "olivia@gmail.com",
+                "123456",
+                new ArrayList<>()
+        );
+        webTestClient
+                .post().uri(SIGNUP_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(signupRequest)
+                .exchange()
+                .expectStatus()
+                .isCreated();
+
+        LoginRequestDto loginRequest = new LoginRequestDto("olivia@gmail.com","123456");
+        LoginResponseDto loginResponse = null;
+        for (int i = 0; i < 3; i++) {
+            loginResponse = webTestClient
+                    .post().uri(LOGIN_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(loginRequest)
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody(LoginResponseDto.class)
+                    .returnResult()
+                    .getResponseBody();
+        }
+        assertThat(loginResponse).isNotNull();
+        String authorization = BearerAuthenticationConverter.BEARER_PREFIX + loginResponse.accessToken();
+
+        LoginAttemptPageResponseDto firstPage = webTestClient
+                .get().uri(uriBuilder -> uriBuilder.path(LOGIN_ATTEMPTS_PAGE_URL)
+                        .queryParam("size", 2)
+                        .build())
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(LoginAttemptPageResponseDto.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(firstPage).isNotNull();
+        assertThat(firstPage.loginAttempts()).hasSize(2);
+        assertThat(firstPage.nextCursor()).isNotNull();
+
+        LoginAttemptPageResponseDto secondPage = webTestClient
+                .get().uri(uriBuilder -> uriBuilder.path(LOGIN_ATTEMPTS_PAGE_URL)
+                        .queryParam("size", 2)
+                        .queryParam("before", firstPage.nextCursor())
+                        .build())
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(LoginAttemptPageResponseDto.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(secondPage).isNotNull();
+        assertThat(secondPage.loginAttempts()).hasSize(1);
+        assertThat(secondPage.nextCursor()).isNull();
+
+        // The size is clamped, and the cursor is based on the clamped size
+        LoginAttemptPageResponseDto clampedPage = webTestClient
+                .get().uri(uriBuilder -> uriBuilder.path(LOGIN_ATTEMPTS_PAGE_URL)
+                        .queryParam("size", 0)
+                        .build())
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(LoginAttemptPageResponseDto.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(clampedPage).isNotNull();
+        assertThat(clampedPage.loginAttempts()).hasSize(1);
+        assertThat(clampedPage.nextCursor()).isNotNull();
+    }
+
+    @Test
+    void shouldReturnBadRequest_WhenCursorIsInvalid() {
+        SignupRequestDto signupRequest = new SignupRequestDto(
+                "isabella@gmail.com",
+                "123456",
+                new ArrayList<>()
+        );
+        webTestClient
+                .post().uri(SIGNUP_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(signupRequest)
+                .exchange()
+                .expectStatus()
+                .isCreated();
+
+        LoginResponseDto loginResponse = webTestClient
+                .post().uri(LOGIN_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new LoginRequestDto("isabella@gmail.com", "123456"))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(LoginResponseDto.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(loginResponse).isNotNull();
+
+        webTestClient
+                .get().uri(uriBuilder -> uriBuilder.path(LOGIN_ATTEMPTS_PAGE_URL)
+                        .queryParam("before", "2024-10-01T10:15:30")
+                        .build())
+                .header(HttpHeaders.AUTHORIZATION, BearerAuthenticationConverter.BEARER_PREFIX + loginResponse.accessToken())
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void shouldReturnLoginAttempts_WithAccessTokenCookie() {
+        SignupRequestDto signupRequest = new SignupRequestDto(
+                "sophia@gmail.com",
+                "123456",
+                new ArrayList<>()
+        );
+        webTestClient
+                .post().uri(SIGNUP_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(signupRequest)
+                .exchange()
+                .expectStatus()
+                .isCreated();
+
+        LoginRequestDto loginRequest = new LoginRequestDto("sophia@gmail.com","123456");
+        LoginResponseDto loginResponse = webTestClient
+                .post().uri(LOGIN_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(loginRequest)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(LoginResponseDto.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(loginResponse).isNotNull();
+
+        // The access token cookie is not the first cookie of the header
+        webTestClient
+                .get().uri(LOGIN_ATTEMPTS_URL)
+                .header(HttpHeaders.COOKIE, "theme=dark; " + BearerAuthenticationConverter.COOKIE_NAME + "=" + loginResponse.accessToken())
+                .exchange()
+                .expectStatus()
+                .isOk();
+    }
+
     @Test
     void shouldReturnUnauthorized_withNoAuthorizationHeader() {
         webTestClient
@@ -108,4 +269,39 @@ class LoginAttemptControllerIT {
         assertThat(errorResponse.errorCode()).isEqualTo(HttpStatus.UNAUTHORIZED.value());
         assertThat(errorResponse.description()).isEqualTo("Access denied: Authorization header is required.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReturnForbidden_withMalformedToken() {
+        ApiErrorResponseDto errorResponse = webTestClient
+                .get().uri(LOGIN_ATTEMPTS_URL)
+                .header(HttpHeaders.AUTHORIZATION, BearerAuthenticationConverter.BEARER_PREFIX + "not-a-jwt")
+                .exchange()
+                .expectStatus()
+                .isForbidden()
+                .expectBody(ApiErrorResponseDto.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(errorResponse).isNotNull();
+        assertThat(errorResponse.errorCode()).isEqualTo(HttpStatus.FORBIDDEN.value());
+        assertThat(errorResponse.description()).isEqualTo("Access denied: Token is malformed.");
+    }
+
+    @Test
+    void shouldReturnForbidden_withTokenSignedByUnknownKey() {
+        String forgedToken = JwtKeyRing.ephemeral().sign(Jwts.builder().subject("william@gmail.com")).compact();
+
+        ApiErrorResponseDto errorResponse = webTestClient
+                .get().uri(LOGIN_ATTEMPTS_URL)
+                .header(HttpHeaders.AUTHORIZATION, BearerAuthenticationConverter.BEARER_PREFIX + forgedToken)
+                .exchange()
+                .expectStatus()
+                .isForbidden()
+                .expectBody(ApiErrorResponseDto.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(errorResponse).isNotNull();
+        assertThat(errorResponse.description()).isEqualTo("Access denied: Token signature is invalid.");
+    }
+}
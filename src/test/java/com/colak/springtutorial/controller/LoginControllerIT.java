@@ -1,5 +1,6 @@
 package com.colak.springtutorial.controller;
 
+import com.colak.springtutorial.configuration.BearerAuthenticationConverter;
 import com.colak.springtutorial.dto.login.LoginRequestDto;
 import com.colak.springtutorial.dto.login.LoginResponseDto;
 import com.colak.springtutorial.dto.signup.SignupRequestDto;
@@ -7,9 +8,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
 import java.util.ArrayList;
@@ -27,6 +31,10 @@ class LoginControllerIT {
     @Autowired
     private WebTestClient webTestClient;
 
+    @SuppressWarnings("unused")
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     //  Test login endpoint
     @Test
     void shouldReturnJWTToken_WhenUserIsRegistered() {
@@ -115,4 +123,141 @@ class LoginControllerIT {
         assertThat(errorResponse.getStatus()).isEqualTo(HttpStatus.UNAUTHORIZED.value());
         assertThat(errorResponse.getDetail()).isEqualTo("User does not exist, email: sara@gmail.com");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReturnTooManyRequests_AfterTooManyFailedAttempts() {
+        SignupRequestDto signupRequest = new SignupRequestDto(
+                "lucas@gmail.com",
+                "123456",
+                new ArrayList<>()
+        );
+        webTestClient
+                .post().uri(SIGNUP_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(signupRequest)
+                .exchange()
+                .expectStatus()
+                .isCreated();
+
+        LoginRequestDto loginRequestWithWrongPassword = new LoginRequestDto("lucas@gmail.com","12345678910");
+        for (int i = 0; i < 5; i++) {
+            webTestClient
+                    .post().uri(LOGIN_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(loginRequestWithWrongPassword)
+                    .exchange()
+                    .expectStatus()
+                    .isUnauthorized();
+        }
+
+        // Even the right password is rejected until the window has passed
+        ProblemDetail errorResponse = webTestClient
+                .post().uri(LOGIN_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new LoginRequestDto("lucas@gmail.com","123456"))
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+                .expectBody(ProblemDetail.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(errorResponse).isNotNull();
+        assertThat(errorResponse.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(errorResponse.getDetail()).isEqualTo("Too many failed login attempts, please try again later");
+    }
+
+    @Test
+    void shouldResetFailures_OfEmail_AfterSuccessfulLogin() {
+        SignupRequestDto signupRequest = new SignupRequestDto(
+                "ella@gmail.com",
+                "123456",
+                new ArrayList<>()
+        );
+        webTestClient
+                .post().uri(SIGNUP_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(signupRequest)
+                .exchange()
+                .expectStatus()
+                .isCreated();
+
+        // Twice one failure short of the limit, with a successful login in between
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 4; i++) {
+                login("ella@gmail.com", "12345678910")
+                        .expectStatus()
+                        .isUnauthorized();
+            }
+            login("ella@gmail.com", "123456")
+                    .expectStatus()
+                    .isOk();
+        }
+    }
+
+    private WebTestClient.ResponseSpec login(String email, String password) {
+        return webTestClient
+                .post().uri(LOGIN_URL)
+                // Counted against an address of its own, through the trusted loopback proxy
+                .header("X-Forwarded-For", "203.0.113.7")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new LoginRequestDto(email, password))
+                .exchange();
+    }
+
+    @Test
+    void shouldLogin_WhenStaleTokenIsSent() {
+        SignupRequestDto signupRequest = new SignupRequestDto(
+                "mia@gmail.com",
+                "123456",
+                new ArrayList<>()
+        );
+        webTestClient
+                .post().uri(SIGNUP_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(signupRequest)
+                .exchange()
+                .expectStatus()
+                .isCreated();
+
+        // Login is public, so the token is not even looked at
+        LoginRequestDto loginRequest = new LoginRequestDto("mia@gmail.com","123456");
+        webTestClient
+                .post().uri(LOGIN_URL)
+                .header(HttpHeaders.AUTHORIZATION, BearerAuthenticationConverter.BEARER_PREFIX + "stale-token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(loginRequest)
+                .exchange()
+                .expectStatus()
+                .isOk();
+    }
+
+    @Test
+    void shouldUpgradeUnprefixedHash_OnLogin() {
+        // Hashes created before the delegating encoder have no algorithm prefix
+        assertHashUpgraded("logan@gmail.com", new BCryptPasswordEncoder(4).encode("123456"));
+    }
+
+    @Test
+    void shouldUpgradeWeakBcryptHash_OnLogin() {
+        // The configured strength is 10
+        assertHashUpgraded("lily@gmail.com", "{bcrypt}" + new BCryptPasswordEncoder(4).encode("123456"));
+    }
+
+    private void assertHashUpgraded(String email, String legacyHash) {
+        jdbcTemplate.update("INSERT INTO users (id, email, password) VALUES (NEXT VALUE FOR users_seq, ?, ?)",
+                email, legacyHash);
+
+        webTestClient
+                .post().uri(LOGIN_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new LoginRequestDto(email, "123456"))
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        String storedHash = jdbcTemplate.queryForObject("SELECT password FROM users WHERE email = ?", String.class, email);
+        assertThat(storedHash).startsWith("{bcrypt}$2a$10$");
+        assertThat(new BCryptPasswordEncoder().matches("123456", storedHash.substring("{bcrypt}".length()))).isTrue();
+    }
+}
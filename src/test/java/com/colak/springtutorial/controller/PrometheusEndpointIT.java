@@ -0,0 +1,82 @@
+package com.colak.springtutorial.controller;
+
+import com.colak.springtutorial.dto.login.LoginRequestDto;
+import com.colak.springtutorial.dto.signup.SignupRequestDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.ArrayList;
+
+import static com.colak.springtutorial.controller.LoginControllerIT.LOGIN_URL;
+import static com.colak.springtutorial.controller.RegistrationControllerIT.SIGNUP_URL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+class PrometheusEndpointIT {
+
+    private static final String PROMETHEUS_URL = "/actuator/prometheus";
+
+    @SuppressWarnings("unused")
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void shouldExposeAuthStageTimers_OnManagementPort() {
+        SignupRequestDto signupRequest = new SignupRequestDto(
+                "liam@gmail.com",
+                "123456",
+                new ArrayList<>()
+        );
+        webTestClient
+                .post().uri(SIGNUP_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(signupRequest)
+                .exchange()
+                .expectStatus()
+                .isCreated();
+
+        LoginRequestDto loginRequest = new LoginRequestDto("liam@gmail.com", "123456");
+        webTestClient
+                .post().uri(LOGIN_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(loginRequest)
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        // No token is needed on the management port, it is only reachable from the loopback interface
+        String scrape = WebTestClient.bindToServer()
+                .baseUrl("http://127.0.0.1:" + managementPort)
+                .build()
+                .get().uri(PROMETHEUS_URL)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(scrape)
+                .contains("auth_stage_seconds_count{outcome=\"match\",stage=\"password_check\"}")
+                .contains("auth_stage_seconds_count{outcome=\"issued\",stage=\"access_token_issue\"}")
+                .contains("auth_stage_seconds_count{outcome=\"created\",stage=\"refresh_token_issue\"}");
+    }
+
+    @Test
+    void shouldNotServePrometheus_OnApplicationPort() {
+        webTestClient
+                .get().uri(PROMETHEUS_URL)
+                .exchange()
+                .expectStatus()
+                .is4xxClientError();
+    }
+}
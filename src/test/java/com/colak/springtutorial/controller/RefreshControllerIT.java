@@ -1,6 +1,9 @@
 package com.colak.springtutorial.controller;
 
+import com.colak.springtutorial.dto.login.LoginRequestDto;
+import com.colak.springtutorial.dto.login.LoginResponseDto;
 import com.colak.springtutorial.dto.refreshtoken.RefreshTokenRequestDTO;
+import com.colak.springtutorial.dto.signup.SignupRequestDto;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
@@ -8,8 +11,16 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+
+import static com.colak.springtutorial.controller.LoginControllerIT.LOGIN_URL;
+import static com.colak.springtutorial.controller.RegistrationControllerIT.SIGNUP_URL;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -22,6 +33,10 @@ class RefreshControllerIT {
     @Autowired
     private WebTestClient webTestClient;
 
+    @SuppressWarnings("unused")
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
 
     @Test
     void shouldReturnNotFound_WhenRefreshTokenDoesNotExist() {
@@ -42,4 +57,191 @@ class RefreshControllerIT {
         assertThat(errorResponse.getStatus()).isEqualTo(HttpStatus.NOT_FOUND.value());
         assertThat(errorResponse.getDetail()).isEqualTo("Refresh Token is not in DB..!!");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldRotateRefreshToken_AndRejectReuseOfRotatedToken() {
+        SignupRequestDto signupRequest = new SignupRequestDto(
+                "emma@gmail.com",
+                "123456",
+                new ArrayList<>()
+        );
+        webTestClient
+                .post().uri(SIGNUP_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(signupRequest)
+                .exchange()
+                .expectStatus()
+                .isCreated();
+
+        LoginResponseDto loginResponse = webTestClient
+                .post().uri(LOGIN_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new LoginRequestDto("emma@gmail.com", "123456"))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(LoginResponseDto.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(loginResponse).isNotNull();
+
+        // First refresh rotates the token
+        LoginResponseDto refreshResponse = webTestClient
+                .post().uri(REFRESH_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new RefreshTokenRequestDTO(loginResponse.refreshToken()))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(LoginResponseDto.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(refreshResponse).isNotNull();
+        assertThat(refreshResponse.accessToken()).isNotBlank();
+        assertThat(refreshResponse.refreshToken()).isNotEqualTo(loginResponse.refreshToken());
+
+        // Presenting the rotated token again is detected as reuse
+        ProblemDetail reuseResponse = webTestClient
+                .post().uri(REFRESH_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new RefreshTokenRequestDTO(loginResponse.refreshToken()))
+                .exchange()
+                .expectStatus()
+                .isForbidden()
+                .expectBody(ProblemDetail.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(reuseResponse).isNotNull();
+        assertThat(reuseResponse.getDetail()).isEqualTo("Refresh token reuse detected. Please make a new login..!");
+
+        // Reuse revokes the current token as well
+        webTestClient
+                .post().uri(REFRESH_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new RefreshTokenRequestDTO(refreshResponse.refreshToken()))
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+    }
+
+    @Test
+    void shouldRevokeSession_WhenTokenFromEarlierRotationIsReused() {
+        SignupRequestDto signupRequest = new SignupRequestDto(
+                "noah@gmail.com",
+                "123456",
+                new ArrayList<>()
+        );
+        webTestClient
+                .post().uri(SIGNUP_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(signupRequest)
+                .exchange()
+                .expectStatus()
+                .isCreated();
+
+        LoginResponseDto loginResponse = webTestClient
+                .post().uri(LOGIN_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new LoginRequestDto("noah@gmail.com", "123456"))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(LoginResponseDto.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(loginResponse).isNotNull();
+
+        // Rotate twice, so the token of the login is two generations old
+        String currentToken = loginResponse.refreshToken();
+        for (int rotation = 0; rotation < 2; rotation++) {
+            LoginResponseDto refreshResponse = webTestClient
+                    .post().uri(REFRESH_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new RefreshTokenRequestDTO(currentToken))
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody(LoginResponseDto.class)
+                    .returnResult()
+                    .getResponseBody();
+            assertThat(refreshResponse).isNotNull();
+            currentToken = refreshResponse.refreshToken();
+        }
+
+        ProblemDetail reuseResponse = webTestClient
+                .post().uri(REFRESH_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new RefreshTokenRequestDTO(loginResponse.refreshToken()))
+                .exchange()
+                .expectStatus()
+                .isForbidden()
+                .expectBody(ProblemDetail.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(reuseResponse).isNotNull();
+        assertThat(reuseResponse.getDetail()).isEqualTo("Refresh token reuse detected. Please make a new login..!");
+
+        // The whole session is revoked, including the current token
+        webTestClient
+                .post().uri(REFRESH_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new RefreshTokenRequestDTO(currentToken))
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+    }
+
+    @Test
+    void shouldReturnUnauthorized_WhenRefreshTokenIsExpired() {
+        SignupRequestDto signupRequest = new SignupRequestDto(
+                "henry@gmail.com",
+                "123456",
+                new ArrayList<>()
+        );
+        webTestClient
+                .post().uri(SIGNUP_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(signupRequest)
+                .exchange()
+                .expectStatus()
+                .isCreated();
+
+        LoginResponseDto loginResponse = webTestClient
+                .post().uri(LOGIN_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new LoginRequestDto("henry@gmail.com", "123456"))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(LoginResponseDto.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(loginResponse).isNotNull();
+        jdbcTemplate.update("UPDATE refresh_tokens SET expiry_date = ? WHERE token = ?",
+                Timestamp.from(Instant.now().minus(Duration.ofDays(2))), loginResponse.refreshToken());
+
+        ProblemDetail errorResponse = webTestClient
+                .post().uri(REFRESH_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new RefreshTokenRequestDTO(loginResponse.refreshToken()))
+                .exchange()
+                .expectStatus()
+                .isUnauthorized()
+                .expectBody(ProblemDetail.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(errorResponse).isNotNull();
+        assertThat(errorResponse.getDetail())
+                .isEqualTo("Refresh token is expired. Please make a new login..!")
+                .doesNotContain(loginResponse.refreshToken());
+
+        // The expired token has been deleted
+        webTestClient
+                .post().uri(REFRESH_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new RefreshTokenRequestDTO(loginResponse.refreshToken()))
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+    }
+}
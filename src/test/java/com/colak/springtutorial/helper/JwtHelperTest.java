@@ -0,0 +1,74 @@
+package com.colak.springtutorial.helper;
+
+import com.colak.springtutorial.exception.InvalidTokenException;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtHelperTest {
+
+    private final JwtKeyRing keyRing = JwtKeyRing.ephemeral();
+    private final JwtHelper jwtHelper = new JwtHelper(keyRing);
+
+    @Test
+    void shouldReturnClaims_OfValidToken() {
+        Instant authTime = Instant.now().minus(Duration.ofHours(1)).truncatedTo(ChronoUnit.SECONDS);
+        String token = jwtHelper.generateAccessToken("nick@gmail.com", 1L, List.of("ROLE_USER"), authTime);
+
+        JwtValidationResult result = jwtHelper.validate(token);
+
+        assertThat(result).isInstanceOf(JwtValidationResult.Valid.class);
+        VerifiedJwt jwt = ((JwtValidationResult.Valid) result).jwt();
+        assertThat(jwt.subject()).isEqualTo("nick@gmail.com");
+        assertThat(jwt.userId()).isEqualTo(1L);
+        assertThat(jwt.roles()).containsExactly("ROLE_USER");
+        assertThat(jwt.authTime()).isEqualTo(authTime);
+        assertThat(jwt.expiration()).isAfter(Instant.now());
+    }
+
+    @Test
+    void shouldRejectMalformedToken() {
+        assertThat(jwtHelper.validate("not-a-jwt")).isEqualTo(invalid(JwtValidationResult.Reason.MALFORMED));
+        assertThat(jwtHelper.validate(null)).isEqualTo(invalid(JwtValidationResult.Reason.MALFORMED));
+    }
+
+    @Test
+    void shouldRejectToken_SignedByUnknownKey() {
+        String token = new JwtHelper(JwtKeyRing.ephemeral()).generateAccessToken("nick@gmail.com", 1L, List.of());
+
+        assertThat(jwtHelper.validate(token)).isEqualTo(invalid(JwtValidationResult.Reason.INVALID_SIGNATURE));
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        String token = keyRing.sign(Jwts.builder()
+                        .subject("nick@gmail.com")
+                        .expiration(Date.from(Instant.now().minus(Duration.ofMinutes(1)))))
+                .compact();
+
+        assertThat(jwtHelper.validate(token)).isEqualTo(invalid(JwtValidationResult.Reason.EXPIRED));
+    }
+
+    @Test
+    void shouldRejectToken_WithoutExpiration() {
+        String token = keyRing.sign(Jwts.builder().subject("nick@gmail.com")).compact();
+
+        assertThat(jwtHelper.validate(token)).isEqualTo(invalid(JwtValidationResult.Reason.MISSING_EXPIRATION));
+        assertThatThrownBy(() -> jwtHelper.verify(token))
+                .isInstanceOf(InvalidTokenException.class)
+                .extracting("reason")
+                .isEqualTo(JwtValidationResult.Reason.MISSING_EXPIRATION);
+    }
+
+    private static JwtValidationResult invalid(JwtValidationResult.Reason reason) {
+        return JwtValidationResult.Invalid.of(reason);
+    }
+}
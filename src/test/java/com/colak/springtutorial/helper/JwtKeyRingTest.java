@@ -0,0 +1,68 @@
+package com.colak.springtutorial.helper;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtKeyRingTest {
+
+    @Test
+    void shouldVerifyTokensOfRotatedKey() throws Exception {
+        KeyPair oldKeyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        KeyPair newKeyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        JwtKeyRing oldRing = new JwtKeyRing("old", List.of(
+                new JwtKey("old", JwtAlgorithm.EDDSA, oldKeyPair.getPrivate(), oldKeyPair.getPublic())));
+        String token = oldRing.sign(Jwts.builder().subject("nick@gmail.com")).compact();
+
+        // The old key is kept with only its public key after the rotation
+        JwtKeyRing newRing = new JwtKeyRing("new", List.of(
+                new JwtKey("new", JwtAlgorithm.EDDSA, newKeyPair.getPrivate(), newKeyPair.getPublic()),
+                new JwtKey("old", JwtAlgorithm.EDDSA, null, oldKeyPair.getPublic())));
+
+        assertThat(newRing.parser().parseSignedClaims(token).getPayload().getSubject()).isEqualTo("nick@gmail.com");
+        assertThat(newRing.parser().parseSignedClaims(newRing.sign(Jwts.builder().subject("john@gmail.com")).compact())
+                .getHeader().getKeyId()).isEqualTo("new");
+    }
+
+    @Test
+    void shouldRejectUnknownKeyId() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair keyPair = generator.generateKeyPair();
+        JwtKeyRing ring = new JwtKeyRing(null, List.of(
+                new JwtKey("es256", JwtAlgorithm.ES256, keyPair.getPrivate(), keyPair.getPublic())));
+
+        String token = JwtKeyRing.ephemeral().sign(Jwts.builder().subject("nick@gmail.com")).compact();
+
+        assertThatThrownBy(() -> ring.parser().parseSignedClaims(token))
+                .isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void shouldPublishOnlyPublicKeys() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair keyPair = generator.generateKeyPair();
+        JwtKeyRing ring = new JwtKeyRing("es256", List.of(
+                new JwtKey("es256", JwtAlgorithm.ES256, keyPair.getPrivate(), keyPair.getPublic()),
+                new JwtKey("hs256", JwtAlgorithm.HS256, Jwts.SIG.HS256.key().build(), Jwts.SIG.HS256.key().build())));
+
+        List<?> keys = (List<?>) ring.jwks().get("keys");
+
+        assertThat(keys).hasSize(1);
+        Map<?, ?> jwk = (Map<?, ?>) keys.getFirst();
+        assertThat(jwk.get("kid")).isEqualTo("es256");
+        assertThat(jwk.get("kty")).isEqualTo("EC");
+        assertThat(jwk.get("alg")).isEqualTo("ES256");
+        assertThat(jwk).containsKeys("x", "y").doesNotContainKey("d");
+    }
+}
@@ -0,0 +1,63 @@
+package com.colak.springtutorial.jfr;
+
+import com.colak.springtutorial.helper.TokenDigest;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthenticationEventTest {
+
+    private static final String TOKEN = "header.payload.signature";
+
+    @Test
+    void shouldRecordTokenHash_NotToken() throws Exception {
+        List<RecordedEvent> events = record(() -> {
+            AuthenticationEvent event = new AuthenticationEvent();
+            event.begin();
+            event.complete("/api/loginAttempts", AuthenticationEvent.REJECTED, "EXPIRED", TOKEN, 1_000, 2_000);
+        });
+
+        assertThat(events).hasSize(1);
+        RecordedEvent event = events.getFirst();
+        assertThat(event.getString("outcome")).isEqualTo(AuthenticationEvent.REJECTED);
+        assertThat(event.getString("reason")).isEqualTo("EXPIRED");
+        assertThat(event.getString("tokenHash")).isEqualTo(TokenDigest.sha256(TOKEN));
+        assertThat(event.getLong("extractionDuration")).isEqualTo(1_000);
+        assertThat(event.toString()).doesNotContain(TOKEN);
+    }
+
+    @Test
+    void shouldCommitOnlyOnce() throws Exception {
+        List<RecordedEvent> events = record(() -> {
+            TokenVerificationEvent event = new TokenVerificationEvent();
+            event.begin();
+            event.complete(TokenVerificationEvent.VALID, null, TOKEN, false, 1_000, 0);
+            event.complete(TokenVerificationEvent.FAILED, null, TOKEN, false, 1_000, 0);
+        });
+
+        assertThat(events).hasSize(1);
+        assertThat(events.getFirst().getString("outcome")).isEqualTo(TokenVerificationEvent.VALID);
+    }
+
+    private static List<RecordedEvent> record(Runnable runnable) throws Exception {
+        Path file = Files.createTempFile("authentication", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(AuthenticationEvent.NAME);
+            recording.enable(TokenVerificationEvent.NAME);
+            recording.start();
+            runnable.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
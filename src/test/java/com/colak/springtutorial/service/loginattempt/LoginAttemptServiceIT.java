@@ -0,0 +1,92 @@
+package com.colak.springtutorial.service.loginattempt;
+
+import com.colak.springtutorial.jpa.LoginAttempt;
+import com.colak.springtutorial.repository.LoginAttemptRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Same configuration as the controller tests, so that the application context is shared
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+class LoginAttemptServiceIT {
+
+    @SuppressWarnings("unused")
+    @Autowired
+    private LoginAttemptService loginAttemptService;
+
+    @SuppressWarnings("unused")
+    @Autowired
+    private LoginAttemptRepository loginAttemptRepository;
+
+    @Test
+    void shouldNotSkipAttempts_WithSameCreatedAtAtPageBoundary() {
+        String email = "ethan@gmail.com";
+        // Attempts written in one batch often share their createdAt
+        LocalDateTime createdAt = LocalDateTime.now();
+        List<LoginAttempt> saved = loginAttemptRepository.saveAll(List.of(
+                new LoginAttempt(email, false, createdAt),
+                new LoginAttempt(email, false, createdAt),
+                new LoginAttempt(email, true, createdAt)));
+
+        List<Long> pagedIds = new ArrayList<>();
+        LoginAttemptCursor cursor = null;
+        do {
+            LoginAttemptPage page = loginAttemptService.findLoginAttempts(email, cursor, 2);
+            page.loginAttempts().forEach(loginAttempt -> pagedIds.add(loginAttempt.getId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(pagedIds).containsExactlyInAnyOrderElementsOf(saved.stream().map(LoginAttempt::getId).toList());
+    }
+
+    @Test
+    void shouldIncludeQueuedAttempts_WithoutWritingThem() {
+        String email = "abigail@gmail.com";
+        // Never started, so the attempts stay queued until flush()
+        LoginAttemptProperties properties = new Binder(new MapConfigurationPropertySource(Map.of()))
+                .bindOrCreate("login-attempt", LoginAttemptProperties.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LoginAttemptWriter writer = new LoginAttemptWriter(loginAttemptRepository, properties, meterRegistry);
+        LoginAttemptService service = new LoginAttemptService(loginAttemptRepository, writer,
+                new RecentLoginAttempts(properties, meterRegistry), meterRegistry);
+        LocalDateTime createdAt = LocalDateTime.now();
+        loginAttemptRepository.save(new LoginAttempt(email, true, createdAt.minusMinutes(1)));
+        for (int i = 0; i < 3; i++) {
+            writer.enqueue(new LoginAttempt(email, false, createdAt.plusSeconds(i)));
+        }
+
+        assertThat(service.findRecentLoginAttempts(email))
+                .extracting(LoginAttempt::isSuccess)
+                .containsExactly(false, false, false, true);
+        assertThat(pagedAttempts(service, email)).hasSize(4);
+        assertThat(loginAttemptRepository.findByEmailOrderByCreatedAtDesc(email, Limit.of(10))).hasSize(1);
+
+        // Written between two reads, the attempts are not returned twice
+        writer.flush();
+        assertThat(pagedAttempts(service, email)).hasSize(4);
+    }
+
+    private static List<LoginAttempt> pagedAttempts(LoginAttemptService service, String email) {
+        List<LoginAttempt> loginAttempts = new ArrayList<>();
+        LoginAttemptCursor cursor = null;
+        do {
+            LoginAttemptPage page = service.findLoginAttempts(email, cursor, 2);
+            loginAttempts.addAll(page.loginAttempts());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return loginAttempts;
+    }
+}
@@ -0,0 +1,81 @@
+package com.colak.springtutorial.service.loginattempt;
+
+import com.colak.springtutorial.jpa.LoginAttempt;
+import com.colak.springtutorial.repository.LoginAttemptRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+// Same configuration as the controller tests, so that the application context is shared.
+// Each test runs its own writer against the shared repository
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+class LoginAttemptWriterIT {
+
+    @SuppressWarnings("unused")
+    @Autowired
+    private LoginAttemptRepository loginAttemptRepository;
+
+    @Test
+    void shouldWriteBatch_OnWriterThread() {
+        // The writer only wakes up for a full batch
+        LoginAttemptWriter writer = writer("2");
+        String email = "harper@gmail.com";
+        writer.start();
+        try {
+            LoginAttempt first = new LoginAttempt(email, false, LocalDateTime.now());
+            writer.enqueue(first);
+            assertThat(writer.pending(email)).containsExactly(first);
+
+            writer.enqueue(new LoginAttempt(email, true, LocalDateTime.now()));
+
+            await().atMost(Duration.ofSeconds(5))
+                    .until(() -> stored(email) == 2);
+            assertThat(writer.pending(email)).isEmpty();
+            assertThat(first.getId()).isNotNull();
+        } finally {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void shouldWriteQueuedAttempts_OnStop() {
+        LoginAttemptWriter writer = writer("100");
+        String email = "evelyn@gmail.com";
+        writer.start();
+        writer.enqueue(new LoginAttempt(email, false, LocalDateTime.now()));
+        writer.enqueue(new LoginAttempt(email, true, LocalDateTime.now()));
+        assertThat(stored(email)).isZero();
+
+        writer.stop();
+
+        assertThat(writer.isRunning()).isFalse();
+        assertThat(stored(email)).isEqualTo(2);
+        assertThat(writer.pending(email)).isEmpty();
+    }
+
+    // Flushes only for a full batch or on stop
+    private LoginAttemptWriter writer(String batchSize) {
+        LoginAttemptProperties properties = new Binder(new MapConfigurationPropertySource(Map.of(
+                "login-attempt.write-behind.batch-size", batchSize,
+                "login-attempt.write-behind.flush-interval", "1h")))
+                .bindOrCreate("login-attempt", LoginAttemptProperties.class);
+        return new LoginAttemptWriter(loginAttemptRepository, properties, new SimpleMeterRegistry());
+    }
+
+    private int stored(String email) {
+        return loginAttemptRepository.findByEmailOrderByCreatedAtDesc(email, Limit.of(10)).size();
+    }
+}
@@ -0,0 +1,32 @@
+package com.colak.springtutorial.service.loginattempt;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowCounterTest {
+
+    @Test
+    void shouldNotCountOtherKeys_WhenManyDistinctKeysAreSprayed() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(5), 10, 1_000);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 100_000; i++) {
+            counter.increment("user" + i + "@gmail.com", now);
+        }
+
+        assertThat(counter.count("nick@gmail.com", now)).isZero();
+    }
+
+    @Test
+    void shouldForgetEvents_OlderThanWindow() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(5), 10, 1_000);
+        long now = System.currentTimeMillis();
+        counter.increment("nick@gmail.com", now);
+        counter.increment("nick@gmail.com", now + Duration.ofMinutes(3).toMillis());
+
+        assertThat(counter.count("nick@gmail.com", now + Duration.ofMinutes(3).toMillis())).isEqualTo(2);
+        assertThat(counter.count("nick@gmail.com", now + Duration.ofMinutes(6).toMillis())).isEqualTo(1);
+    }
+}
@@ -0,0 +1,69 @@
+package com.colak.springtutorial.service.password;
+
+import com.colak.springtutorial.controller.RestExceptionHandler;
+import com.colak.springtutorial.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.awaitility.Awaitility.await;
+
+class PasswordHashingExecutorTest {
+
+    @Test
+    void shouldRejectWithTooManyRequests_WhenQueueIsFull() throws InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PasswordProperties properties = new Binder(new MapConfigurationPropertySource(Map.of(
+                "password.executor.threads", "1",
+                "password.executor.queue-capacity", "1")))
+                .bindOrCreate("password", PasswordProperties.class);
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(properties, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // One hash occupies the only thread and one waits in the queue
+            Thread running = Thread.ofVirtual().start(() -> executor.execute(() -> {
+                started.countDown();
+                return waitFor(release);
+            }));
+            started.await();
+            Thread queued = Thread.ofVirtual().start(() -> executor.execute(() -> "queued"));
+            await().atMost(Duration.ofSeconds(5))
+                    .until(() -> meterRegistry.get("password.hashing.queue.size").gauge().value() == 1);
+
+            TooManyRequestsException exception = catchThrowableOfType(
+                    () -> executor.execute(() -> "rejected"), TooManyRequestsException.class);
+
+            assertThat(exception).isNotNull();
+            assertThat(meterRegistry.get("password.hashing.rejected").counter().count()).isEqualTo(1);
+            ProblemDetail problemDetail = new RestExceptionHandler().handleTooManyRequestsException(exception);
+            assertThat(problemDetail.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+            assertThat(problemDetail.getDetail()).isEqualTo("Too many login requests, please try again later");
+
+            release.countDown();
+            running.join();
+            queued.join();
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static String waitFor(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        return "running";
+    }
+}
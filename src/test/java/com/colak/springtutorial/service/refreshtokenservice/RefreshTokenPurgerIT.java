@@ -0,0 +1,114 @@
+package com.colak.springtutorial.service.refreshtokenservice;
+
+import com.colak.springtutorial.helper.TokenDigest;
+import com.colak.springtutorial.jpa.RefreshToken;
+import com.colak.springtutorial.jpa.User;
+import com.colak.springtutorial.repository.RefreshTokenRepository;
+import com.colak.springtutorial.repository.RetiredRefreshTokenRepository;
+import com.colak.springtutorial.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Same configuration as the controller tests, so that the application context is shared.
+// Other tests may leave expired tokens behind, so only the tokens created here are looked at
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+class RefreshTokenPurgerIT {
+
+    // Inserted by data.sql
+    private static final String EMAIL = "orcun@example.com";
+
+    @SuppressWarnings("unused")
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @SuppressWarnings("unused")
+    @Autowired
+    private RetiredRefreshTokenRepository retiredRefreshTokenRepository;
+
+    @SuppressWarnings("unused")
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void shouldDeleteExpiredTokens_InBatches() {
+        List<RefreshToken> expired = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expired.add(save(Instant.now().minus(Duration.ofMinutes(1))));
+        }
+        RefreshToken valid = save(Instant.now().plus(Duration.ofHours(1)));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        // Two tokens per batch, the loop runs until none are left
+        purger("2", "10s", meterRegistry).purgeExpiredTokens();
+
+        for (RefreshToken refreshToken : expired) {
+            assertThat(refreshTokenRepository.existsById(refreshToken.getId())).isFalse();
+        }
+        assertThat(refreshTokenRepository.existsById(valid.getId())).isTrue();
+        assertThat(meterRegistry.get("refresh.tokens.purged").counter().count()).isGreaterThanOrEqualTo(5);
+        assertThat(lag(meterRegistry)).isZero();
+    }
+
+    @Test
+    void shouldDeleteRetiredTokens_WithTheirSession() {
+        RefreshToken expired = save(Instant.now().minus(Duration.ofMinutes(1)));
+        // Not expired by itself, but its session is
+        String tokenHash = TokenDigest.sha256(UUID.randomUUID().toString());
+        retiredRefreshTokenRepository.retire(tokenHash, expired.getId(), Instant.now().plus(Duration.ofHours(1)));
+
+        purger("1000", "10s", new SimpleMeterRegistry()).purgeExpiredTokens();
+
+        assertThat(refreshTokenRepository.existsById(expired.getId())).isFalse();
+        assertThat(retiredRefreshTokenRepository.existsById(tokenHash)).isFalse();
+    }
+
+    @Test
+    void shouldReportLag_WhenTimeBudgetIsUsedUp() {
+        save(Instant.now().minus(Duration.ofHours(1)));
+        save(Instant.now().minus(Duration.ofHours(2)));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        // A single batch of one token, so at least one of them is left
+        purger("1", "0s", meterRegistry).purgeExpiredTokens();
+
+        assertThat(lag(meterRegistry)).isGreaterThanOrEqualTo(Duration.ofHours(1).toSeconds());
+    }
+
+    private RefreshToken save(Instant expiryDate) {
+        User user = userRepository.findByEmail(EMAIL).orElseThrow();
+        return refreshTokenRepository.save(RefreshToken.builder()
+                .token(UUID.randomUUID().toString())
+                .expiryDate(expiryDate)
+                .user(user)
+                .build());
+    }
+
+    private RefreshTokenPurger purger(String batchSize, String timeBudget, SimpleMeterRegistry meterRegistry) {
+        RefreshTokenProperties properties = new Binder(new MapConfigurationPropertySource(Map.of(
+                "refresh-token.purge.batch-size", batchSize,
+                "refresh-token.purge.time-budget", timeBudget)))
+                .bindOrCreate("refresh-token", RefreshTokenProperties.class);
+        return new RefreshTokenPurger(refreshTokenRepository, retiredRefreshTokenRepository, properties, meterRegistry);
+    }
+
+    private static double lag(SimpleMeterRegistry meterRegistry) {
+        return meterRegistry.get("refresh.tokens.purge.lag").gauge().value();
+    }
+}
@@ -0,0 +1,77 @@
+package com.colak.springtutorial.service.userdetails;
+
+import com.colak.springtutorial.dto.signup.SignupRequestDto;
+import com.colak.springtutorial.service.registration.RegistrationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Same configuration as the controller tests, so that the application context is shared
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+class UserDetailsServiceImplIT {
+
+    // Inserted by data.sql with ROLE_ADMIN and ROLE_USER
+    private static final String EMAIL = "orcun@example.com";
+
+    @SuppressWarnings("unused")
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @SuppressWarnings("unused")
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @SuppressWarnings("unused")
+    @Autowired
+    private RegistrationService registrationService;
+
+    @SuppressWarnings("unused")
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void shouldLoadUserWithAuthorities_InOneQuery() {
+        // Make sure the user is read from the database
+        userDetailsService.evictUser(EMAIL);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            AuthenticatedUser user = userDetailsService.loadUserByUsername(EMAIL);
+
+            assertThat(user.getAuthorities())
+                    .extracting(GrantedAuthority::getAuthority)
+                    .containsExactlyInAnyOrder("ROLE_ADMIN", "ROLE_USER");
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    void shouldEvictUser_AfterCommit() {
+        String email = "jackson@gmail.com";
+        registrationService.signup(new SignupRequestDto(email, "123456", List.of()));
+        AuthenticatedUser cached = userDetailsService.loadUserByUsername(email);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userDetailsService.updatePassword(cached, "{noop}654321");
+            // Not committed yet, so the cached user is still the committed one
+            assertThat(userDetailsService.loadUserByUsername(email).getPassword()).isEqualTo(cached.getPassword());
+        });
+
+        assertThat(userDetailsService.loadUserByUsername(email).getPassword()).isEqualTo("{noop}654321");
+    }
+}